@@ -1321,10 +1321,11 @@ public class BitSetFX extends AbstractSet<Integer> implements SortedSet<Integer>
     addAll(c);
   }
 
+  /**
+   * @return true, iff this bit set contains all bits of the given one; neither bit set is modified, since the
+   *         comparison only reads the words in use
+   */
   public boolean geq(final BitSetFX set) {
-    trimToSize();
-    set.trimToSize();
-
     checkInvariants();
     set.checkInvariants();
 
@@ -35,6 +35,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -57,15 +58,46 @@ import conexp.fx.core.math.GuavaIsomorphism;
 
 public final class Collections3 {
 
+  /**
+   * Smaller sets are partitioned sequentially, since the quadratically many tests of the predicate are then cheaper
+   * than setting up a parallel stream.
+   */
+  public static final int QUOTIENT_SEQUENTIAL_THRESHOLD = 16;
+
   public static final <E> Set<Set<E>> quotient(final Set<E> set, BiPredicate<E, E> pred) {
-    return set
-        .parallelStream()
-        .map(x -> set.parallelStream().filter(y -> pred.test(x, y)).collect(Collectors.toSet()))
+    // only the outer loop is parallelized, each equivalence class is collected sequentially
+    return (set.size() < QUOTIENT_SEQUENTIAL_THRESHOLD ? set.stream() : set.parallelStream())
+        .map(x -> set.stream().filter(y -> pred.test(x, y)).collect(Collectors.toSet()))
         .collect(Collectors.toSet());
   }
 
   public static final <E> Set<E> representatives(final Set<E> set, BiPredicate<E, E> pred) {
-    return quotient(set, pred).parallelStream().map(eqclass -> eqclass.iterator().next()).collect(Collectors.toSet());
+    return quotient(set, pred).stream().map(eqclass -> eqclass.iterator().next()).collect(Collectors.toSet());
+  }
+
+  /**
+   * Computes the quotient w.r.t. the equivalence relation pred in a single grouping pass, provided that equivalent
+   * elements have equal keys, e.g., canonical fingerprints. The predicate is then only tested within groups of
+   * elements with equal keys, i.e., on key collisions.
+   */
+  public static final <E> Set<Set<E>>
+      quotient(final Set<E> set, final Function<? super E, ?> key, final BiPredicate<E, E> pred) {
+    final Collection<List<E>> groups =
+        (set.size() < QUOTIENT_SEQUENTIAL_THRESHOLD ? set.stream() : set.parallelStream())
+            .collect(Collectors.groupingBy(key::apply))
+            .values();
+    final Set<Set<E>> quotient = new HashSet<>();
+    for (List<E> group : groups)
+      if (group.size() == 1)
+        quotient.add(Collections.singleton(group.get(0)));
+      else
+        quotient.addAll(quotient(new HashSet<>(group), pred));
+    return quotient;
+  }
+
+  public static final <E> Set<E>
+      representatives(final Set<E> set, final Function<? super E, ?> key, final BiPredicate<E, E> pred) {
+    return quotient(set, key, pred).stream().map(eqclass -> eqclass.iterator().next()).collect(Collectors.toSet());
   }
 
   public static final <E> Set<E> newConcurrentHashSet() {
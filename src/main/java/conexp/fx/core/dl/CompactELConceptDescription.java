@@ -0,0 +1,299 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+import com.google.common.collect.ImmutableSetMultimap;
+
+/**
+ * An immutable, memory-efficient encoding of an {@link ELConceptDescription} w.r.t. a {@link SignatureDictionary}.
+ * Concept names are stored as a sparse bit set, i.e., as the non-zero 64-bit words of the bit set together with their
+ * sorted indices, so that its size depends on the number of concept names rather than on their largest identifier.
+ * The existential restrictions are stored as an int array of role identifiers together with an array of fillers, both
+ * sorted by role. Name containment thus boils down to a merge-join of word indices with word-level bit operations, and
+ * the fillers of a role are found by a merge-join as well. The concept name owl:Thing is dropped on encoding.
+ * <p>
+ * The encoding is not used by the reasoner yet; callers opt into it.
+ */
+public final class CompactELConceptDescription {
+
+  private static final IRI THING = OWLManager.getOWLDataFactory().getOWLThing().getIRI();
+
+  public static final CompactELConceptDescription
+      of(final ELConceptDescription concept, final SignatureDictionary dictionary) {
+    return of(concept.intern(), dictionary);
+  }
+
+  public static final CompactELConceptDescription
+      of(final ImmutableELConceptDescription concept, final SignatureDictionary dictionary) {
+    return of(concept, dictionary, new IdentityHashMap<>());
+  }
+
+  private static final CompactELConceptDescription of(
+      final ImmutableELConceptDescription concept,
+      final SignatureDictionary dictionary,
+      final Map<ImmutableELConceptDescription, CompactELConceptDescription> encoded) {
+    final CompactELConceptDescription cached = encoded.get(concept);
+    if (cached != null)
+      return cached;
+    final int[] conceptNames = concept
+        .getConceptNames()
+        .stream()
+        .filter(A -> !A.equals(THING))
+        .mapToInt(dictionary::conceptName)
+        .sorted()
+        .toArray();
+    final int n = concept.getExistentialRestrictions().size();
+    final long[] keys = new long[n];
+    final ImmutableELConceptDescription[] values = new ImmutableELConceptDescription[n];
+    int k = 0;
+    for (Entry<IRI, ImmutableELConceptDescription> existentialRestriction : concept
+        .getExistentialRestrictions()
+        .entries()) {
+      // sort the existential restrictions by role, and keep the original position as a tie-breaker
+      keys[k] = ((long) dictionary.roleName(existentialRestriction.getKey()) << 32) | k;
+      values[k++] = existentialRestriction.getValue();
+    }
+    Arrays.sort(keys);
+    int[] roles = new int[n];
+    CompactELConceptDescription[] fillers = new CompactELConceptDescription[n];
+    int m = 0;
+    for (int i = 0, first = 0; i < n; i++) {
+      final int r = (int) (keys[i] >>> 32);
+      final CompactELConceptDescription filler = of(values[(int) keys[i]], dictionary, encoded);
+      if (m == 0 || roles[m - 1] != r)
+        first = m;
+      // distinct fillers can coincide after dropping owl:Thing
+      boolean duplicate = false;
+      for (int j = first; j < m && !duplicate; j++)
+        duplicate = fillers[j].equals(filler);
+      if (!duplicate) {
+        roles[m] = r;
+        fillers[m++] = filler;
+      }
+    }
+    if (m < n) {
+      roles = Arrays.copyOf(roles, m);
+      fillers = Arrays.copyOf(fillers, m);
+    }
+    final CompactELConceptDescription compact = new CompactELConceptDescription(
+        dictionary,
+        conceptNames,
+        roles,
+        fillers,
+        concept.getDataValues(),
+        concept.isBot());
+    encoded.put(concept, compact);
+    return compact;
+  }
+
+  private final SignatureDictionary                   dictionary;
+  /**
+   * the indices of the non-zero words of the concept name bit set in ascending order
+   */
+  private final int[]                                 conceptNameWordIndices;
+  /**
+   * the non-zero words of the concept name bit set, in the order of their indices
+   */
+  private final long[]                                conceptNameWords;
+  private final int[]                                 roles;
+  private final CompactELConceptDescription[]         fillers;
+  private final ImmutableSetMultimap<IRI, OWLLiteral> dataValues;
+  private final boolean                               isBot;
+  private final int                                   hashCode;
+
+  private CompactELConceptDescription(
+      final SignatureDictionary dictionary,
+      final int[] conceptNames,
+      final int[] roles,
+      final CompactELConceptDescription[] fillers,
+      final ImmutableSetMultimap<IRI, OWLLiteral> dataValues,
+      final boolean isBot) {
+    super();
+    this.dictionary = dictionary;
+    int words = 0;
+    for (int i = 0; i < conceptNames.length; i++)
+      if (i == 0 || conceptNames[i] >>> 6 != conceptNames[i - 1] >>> 6)
+        words++;
+    this.conceptNameWordIndices = new int[words];
+    this.conceptNameWords = new long[words];
+    for (int i = 0, w = -1; i < conceptNames.length; i++) {
+      if (i == 0 || conceptNames[i] >>> 6 != conceptNames[i - 1] >>> 6)
+        conceptNameWordIndices[++w] = conceptNames[i] >>> 6;
+      conceptNameWords[w] |= 1L << conceptNames[i];
+    }
+    this.roles = roles;
+    this.fillers = fillers;
+    this.dataValues = dataValues;
+    this.isBot = isBot;
+    int hashCode = Arrays.hashCode(conceptNameWords) + 7 * dataValues.hashCode();
+    // order-independent, since the order of the fillers of the same role is not canonical
+    for (int i = 0; i < fillers.length; i++)
+      hashCode += 31 * roles[i] ^ fillers[i].hashCode;
+    this.hashCode = hashCode;
+  }
+
+  public final SignatureDictionary getDictionary() {
+    return dictionary;
+  }
+
+  public final boolean isBot() {
+    return isBot;
+  }
+
+  public final boolean isTop() {
+    return conceptNameCount() == 0 && roles.length == 0 && dataValues.isEmpty();
+  }
+
+  public final int conceptNameCount() {
+    return LongStream.of(conceptNameWords).mapToInt(Long::bitCount).sum();
+  }
+
+  public final boolean containsConceptName(final int conceptName) {
+    final int w = Arrays.binarySearch(conceptNameWordIndices, conceptName >>> 6);
+    return w >= 0 && (conceptNameWords[w] & 1L << conceptName) != 0;
+  }
+
+  /**
+   * @return the identifiers of the concept names in ascending order
+   */
+  public final IntStream conceptNames() {
+    return IntStream
+        .range(0, conceptNameWords.length)
+        .flatMap(
+            w -> IntStream
+                .range(0, 64)
+                .filter(b -> (conceptNameWords[w] & 1L << b) != 0)
+                .map(b -> conceptNameWordIndices[w] << 6 | b));
+  }
+
+  /**
+   * @return true, iff this concept description is subsumed by the other one (w.r.t. empty TBox)
+   */
+  public final boolean isSubsumedBy(final CompactELConceptDescription other) {
+    if (this.dictionary != other.dictionary)
+      throw new IllegalArgumentException("Both concept descriptions must be encoded w.r.t. the same dictionary.");
+    return isSubsumedBy(this, other);
+  }
+
+  private static final boolean
+      isSubsumedBy(final CompactELConceptDescription concept1, final CompactELConceptDescription concept2) {
+    if (concept1 == concept2 || concept1.isBot)
+      return true;
+    if (!containsAllConceptNames(concept1, concept2))
+      return false;
+    if (!concept2.dataValues.isEmpty() && !concept1.dataValues.entries().containsAll(concept2.dataValues.entries()))
+      return false;
+    // merge-join of the existential restrictions, which are sorted by role in both concept descriptions
+    int i = 0;
+    for (int j = 0; j < concept2.roles.length; j++) {
+      final int r = concept2.roles[j];
+      while (i < concept1.roles.length && concept1.roles[i] < r)
+        i++;
+      boolean found = false;
+      for (int k = i; k < concept1.roles.length && concept1.roles[k] == r; k++)
+        if (isSubsumedBy(concept1.fillers[k], concept2.fillers[j])) {
+          found = true;
+          break;
+        }
+      if (!found)
+        return false;
+    }
+    return true;
+  }
+
+  private static final boolean
+      containsAllConceptNames(final CompactELConceptDescription concept1, final CompactELConceptDescription concept2) {
+    final int[] indices1 = concept1.conceptNameWordIndices;
+    final int[] indices2 = concept2.conceptNameWordIndices;
+    if (indices1.length < indices2.length)
+      return false;
+    // merge-join of the non-zero words, each word of concept2 must be covered by the word of concept1 with same index
+    int i = 0;
+    for (int j = 0; j < indices2.length; j++) {
+      while (i < indices1.length && indices1[i] < indices2[j])
+        i++;
+      if (i == indices1.length || indices1[i] != indices2[j]
+          || (concept2.conceptNameWords[j] & ~concept1.conceptNameWords[i]) != 0)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return a fresh, mutable concept description with the same meaning
+   */
+  public final ELConceptDescription toELConceptDescription() {
+    final ELConceptDescription concept = new ELConceptDescription();
+    conceptNames().forEach(A -> concept.getConceptNames().add(dictionary.conceptName(A)));
+    concept.getDataValues().putAll(dataValues);
+    for (int i = 0; i < roles.length; i++)
+      concept.getExistentialRestrictions().put(dictionary.roleName(roles[i]), fillers[i].toELConceptDescription());
+    return concept;
+  }
+
+  @Override
+  public final boolean equals(final Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof CompactELConceptDescription))
+      return false;
+    final CompactELConceptDescription other = (CompactELConceptDescription) obj;
+    if (this.dictionary != other.dictionary || this.hashCode != other.hashCode
+        || !Arrays.equals(this.roles, other.roles) || !this.dataValues.equals(other.dataValues)
+        || !Arrays.equals(this.conceptNameWordIndices, other.conceptNameWordIndices)
+        || !Arrays.equals(this.conceptNameWords, other.conceptNameWords))
+      return false;
+    // the fillers of each role must coincide as sets
+    for (int i = 0; i < fillers.length; i++) {
+      boolean found = false;
+      for (int k = 0; k < fillers.length && !found; k++)
+        found = this.roles[i] == other.roles[k] && this.fillers[i].equals(other.fillers[k]);
+      if (!found)
+        return false;
+    }
+    return true;
+  }
+
+  @Override
+  public final int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public final String toString() {
+    return toELConceptDescription().toString();
+  }
+
+}
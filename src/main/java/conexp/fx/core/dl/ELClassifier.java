@@ -0,0 +1,643 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+import conexp.fx.core.collections.BitSetFX;
+import conexp.fx.core.collections.relation.MatrixRelation;
+import conexp.fx.core.collections.setlist.SetList;
+import conexp.fx.core.collections.setlist.SetLists;
+
+/**
+ * A classifier for EL TBoxes that implements the completion algorithm of Baader, Brandt and Lutz. Every
+ * sub-description of the concept inclusions and of the queried concept descriptions is given an int index and is
+ * defined by a fresh name, such that all axioms are in one of the normal forms A1 ⊓ ... ⊓ An ⊑ B, A ⊑ ∃r.B, and
+ * ∃r.A ⊑ B. The completion rules then saturate the subsumers S(A) of each index A, which are stored in bit sets, and
+ * the role successors of each index, which are stored in int lists. C is subsumed by D w.r.t. the TBox iff S(C)
+ * contains D or ⊥. Data values ∃r.{v} are treated as additional concept names, which is sound and complete in the
+ * absence of axioms on data properties.
+ *
+ * Queried concept descriptions are normalized and saturated on demand, without touching the saturation of the TBox.
+ * After each query, all indices, axioms and role successors of the queried concept descriptions are discarded again,
+ * such that the classifier does not grow with the number of queries. All public methods are synchronized, such that a
+ * classifier can be shared by several threads.
+ */
+public final class ELClassifier {
+
+  private static final IRI THING   = OWLManager.getOWLDataFactory().getOWLThing().getIRI();
+  private static final IRI NOTHING = OWLManager.getOWLDataFactory().getOWLNothing().getIRI();
+  private static final int TOP     = 0;
+  private static final int BOT     = 1;
+
+  /**
+   * A growable list of primitive ints.
+   */
+  private static final class IntList {
+
+    private int[] elements = new int[4];
+    private int   size     = 0;
+
+    private final void add(final int element) {
+      if (size == elements.length)
+        elements = Arrays.copyOf(elements, 2 * size);
+      elements[size++] = element;
+    }
+
+  }
+
+  private final Map<IRI, Integer>                           conceptNameIndex      = new HashMap<>();
+  private final Map<Entry<IRI, OWLLiteral>, Integer>        dataValueIndex        = new HashMap<>();
+  private final Map<IRI, Integer>                           roleNameIndex         = new HashMap<>();
+  private final Map<ImmutableELConceptDescription, Integer> nodeIndex             = new IdentityHashMap<>();
+  /**
+   * maps (r, A) to the index of ∃r.A
+   */
+  private final Map<Long, Integer>                          existentialIndex      = new HashMap<>();
+  private int                                               size                  = 0;
+  /**
+   * the normal form A1 ⊓ ... ⊓ An ⊑ B, where conjunctions[k] = {A1, ..., An} and conclusions[k] = B
+   */
+  private final List<int[]>                                 conjunctions          = new ArrayList<>();
+  private final IntList                                     conclusions           = new IntList();
+  /**
+   * conjunctionsWith[A] contains k iff A ∈ conjunctions[k]
+   */
+  private final List<IntList>                               conjunctionsWith      = new ArrayList<>();
+  /**
+   * the normal form A ⊑ ∃r.B, where existentialsOf[A] contains r and B in a row
+   */
+  private final List<IntList>                               existentialsOf        = new ArrayList<>();
+  /**
+   * the normal form ∃r.A ⊑ B, where existentialsOn[A] contains r and B in a row, and existentialsWith[r] contains A
+   * and B in a row
+   */
+  private final List<IntList>                               existentialsOn        = new ArrayList<>();
+  private final List<IntList>                               existentialsWith      = new ArrayList<>();
+  private final List<BitSetFX>                              subsumers             = new ArrayList<>();
+  /**
+   * successors.get(r)[A] and predecessors.get(r)[A] are the r-successors and r-predecessors of A
+   */
+  private final List<List<IntList>>                         successors            = new ArrayList<>();
+  private final List<List<IntList>>                         predecessors          = new ArrayList<>();
+  private final IntList                                     facts                 = new IntList();
+  private final IntList                                     edges                 = new IntList();
+  private int                                               saturated             = 0;
+  /**
+   * the indices below are defined by equivalences, the other ones only by inclusions, see {@link #indexOf}
+   */
+  private final int                                         defined;
+  private final int                                         definedConjunctions;
+  private final int                                         definedRoles;
+  /**
+   * the keys that have been added to the above maps by queries since the last {@link #rollback()}, each with its map
+   */
+  private final List<Entry<Map<?, Integer>, ?>>             queried               = new ArrayList<>();
+  /**
+   * the role r and index B in a row for each edge from a queried index to an index B below {@link #defined}
+   */
+  private final IntList                                     queriedPredecessors   = new IntList();
+
+  public ELClassifier(final Collection<ELConceptInclusion> conceptInclusions) {
+    super();
+    newIndex();
+    newIndex();
+    for (ELConceptInclusion conceptInclusion : conceptInclusions)
+      addConjunction(
+          new int[] { indexOf(conceptInclusion.getSubsumee().intern(), true) },
+          indexOf(conceptInclusion.getSubsumer().intern(), true));
+    this.defined = size;
+    this.definedConjunctions = conjunctions.size();
+    this.definedRoles = successors.size();
+  }
+
+  public ELClassifier(final ELTBox tBox) {
+    this(tBox.getConceptInclusions());
+  }
+
+  private final int newIndex() {
+    conjunctionsWith.add(null);
+    existentialsOf.add(null);
+    existentialsOn.add(null);
+    for (List<IntList> successorsOfRole : successors)
+      successorsOfRole.add(null);
+    for (List<IntList> predecessorsOfRole : predecessors)
+      predecessorsOfRole.add(null);
+    return size++;
+  }
+
+  private static final IntList at(final List<IntList> lists, final int index) {
+    IntList list = lists.get(index);
+    if (list == null) {
+      list = new IntList();
+      lists.set(index, list);
+    }
+    return list;
+  }
+
+  private final int roleIndexOf(final IRI roleName) {
+    return roleNameIndex.computeIfAbsent(roleName, __ -> {
+      final List<IntList> successorsOfRole = new ArrayList<>(size);
+      final List<IntList> predecessorsOfRole = new ArrayList<>(size);
+      for (int A = 0; A < size; A++) {
+        successorsOfRole.add(null);
+        predecessorsOfRole.add(null);
+      }
+      successors.add(successorsOfRole);
+      predecessors.add(predecessorsOfRole);
+      existentialsWith.add(new IntList());
+      return successors.size() - 1;
+    });
+  }
+
+  /**
+   * Normalizes the given concept description, i.e., introduces fresh names for it and for all its sub-descriptions
+   * unless they already have one. The sub-descriptions of the concept inclusions are defined by equivalences, e.g., X
+   * ⊑ A, X ⊑ ∃r.Y, and A ⊓ ∃r.Y ⊑ X for A ⊓ ∃r.Y. The queried concept descriptions are only defined by the first two
+   * inclusions, which suffices to saturate their subsumers. Since the left-hand sides of these inclusions are fresh
+   * names, they do not affect the subsumers of the other indices, i.e., a query never invalidates the saturation.
+   *
+   * @return the index of the given concept description
+   */
+  private final int indexOf(final ImmutableELConceptDescription concept, final boolean equivalence) {
+    final Integer index = nodeIndex.get(concept);
+    if (index != null)
+      return index;
+    final Set<Integer> conjuncts = new HashSet<>();
+    for (IRI A : concept.getConceptNames())
+      if (A.equals(NOTHING))
+        conjuncts.add(BOT);
+      else if (!A.equals(THING))
+        conjuncts.add(conceptNameIndex.computeIfAbsent(A, __ -> {
+          logQueried(conceptNameIndex, A, equivalence);
+          return newIndex();
+        }));
+    for (Entry<IRI, OWLLiteral> dataValue : concept.getDataValues().entries())
+      conjuncts.add(dataValueIndex.computeIfAbsent(dataValue, __ -> {
+        logQueried(dataValueIndex, dataValue, equivalence);
+        return newIndex();
+      }));
+    for (Entry<IRI, ImmutableELConceptDescription> existentialRestriction : concept
+        .getExistentialRestrictions()
+        .entries())
+      conjuncts
+          .add(
+              existentialIndexOf(
+                  existentialRestriction.getKey(),
+                  indexOf(existentialRestriction.getValue(), equivalence),
+                  equivalence));
+    final int newIndex;
+    if (conjuncts.isEmpty())
+      newIndex = TOP;
+    else if (conjuncts.size() == 1)
+      newIndex = conjuncts.iterator().next();
+    else {
+      newIndex = newIndex();
+      final int[] conjunction = new int[conjuncts.size()];
+      int i = 0;
+      for (int conjunct : conjuncts) {
+        conjunction[i++] = conjunct;
+        addConjunction(new int[] { newIndex }, conjunct);
+      }
+      if (equivalence)
+        addConjunction(conjunction, newIndex);
+    }
+    nodeIndex.put(concept, newIndex);
+    logQueried(nodeIndex, concept, equivalence);
+    return newIndex;
+  }
+
+  private final <K> void logQueried(final Map<K, Integer> map, final K key, final boolean equivalence) {
+    if (!equivalence)
+      queried.add(new SimpleImmutableEntry<>(map, key));
+  }
+
+  /**
+   * Normalizes a queried concept description. The TBox is saturated before, such that the edges from the queried
+   * indices are appended to the predecessor lists after all edges between the indices of the TBox, see
+   * {@link #rollback()}.
+   *
+   * @return the index of the given concept description
+   */
+  private final int queryIndexOf(final ImmutableELConceptDescription concept) {
+    if (saturated < defined)
+      saturate();
+    return indexOf(concept, false);
+  }
+
+  private final int existentialIndexOf(final IRI roleName, final int filler, final boolean equivalence) {
+    final int r = roleIndexOf(roleName);
+    final long key = ((long) r << 32) | filler;
+    return existentialIndex.computeIfAbsent(key, __ -> {
+      logQueried(existentialIndex, key, equivalence);
+      final int newIndex = newIndex();
+      final IntList existentialsOfNewIndex = at(existentialsOf, newIndex);
+      existentialsOfNewIndex.add(r);
+      existentialsOfNewIndex.add(filler);
+      if (equivalence) {
+        final IntList existentialsOnFiller = at(existentialsOn, filler);
+        existentialsOnFiller.add(r);
+        existentialsOnFiller.add(newIndex);
+        final IntList existentialsWithRole = existentialsWith.get(r);
+        existentialsWithRole.add(filler);
+        existentialsWithRole.add(newIndex);
+      }
+      return newIndex;
+    });
+  }
+
+  private final void addConjunction(final int[] conjunction, final int conclusion) {
+    final int k = conjunctions.size();
+    conjunctions.add(conjunction);
+    conclusions.add(conclusion);
+    for (int A : conjunction)
+      at(conjunctionsWith, A).add(k);
+  }
+
+  private final void addFact(final int A, final int B) {
+    final BitSetFX subsumersOfA = subsumers.get(A);
+    if (subsumersOfA.get(B))
+      return;
+    subsumersOfA.set(B);
+    facts.add(A);
+    facts.add(B);
+  }
+
+  private final void addEdge(final int A, final int r, final int B) {
+    final IntList successorsOfA = at(successors.get(r), A);
+    for (int i = 0; i < successorsOfA.size; i++)
+      if (successorsOfA.elements[i] == B)
+        return;
+    successorsOfA.add(B);
+    at(predecessors.get(r), B).add(A);
+    if (A >= defined && B < defined) {
+      queriedPredecessors.add(r);
+      queriedPredecessors.add(B);
+    }
+    edges.add(A);
+    edges.add(r);
+    edges.add(B);
+  }
+
+  private final boolean entails(final int A, final int[] conjunction) {
+    final BitSetFX subsumersOfA = subsumers.get(A);
+    for (int B : conjunction)
+      if (!subsumersOfA.get(B))
+        return false;
+    return true;
+  }
+
+  /**
+   * Applies the completion rules until no new facts can be derived.
+   */
+  private final void saturate() {
+    for (int A = saturated; A < size; A++) {
+      subsumers.add(new BitSetFX());
+      addFact(A, A);
+      addFact(A, TOP);
+    }
+    saturated = size;
+    // both work lists are processed as stacks, such that their size is bounded by the number of pending entries
+    while (facts.size > 0 || edges.size > 0) {
+      while (facts.size > 0) {
+        final int B = facts.elements[--facts.size];
+        final int A = facts.elements[--facts.size];
+        // A1 ⊓ ... ⊓ An ⊑ C
+        final IntList conjunctionsWithB = conjunctionsWith.get(B);
+        if (conjunctionsWithB != null)
+          for (int i = 0; i < conjunctionsWithB.size; i++) {
+            final int k = conjunctionsWithB.elements[i];
+            if (entails(A, conjunctions.get(k)))
+              addFact(A, conclusions.elements[k]);
+          }
+        // B ⊑ ∃r.C
+        final IntList existentialsOfB = existentialsOf.get(B);
+        if (existentialsOfB != null)
+          for (int i = 0; i < existentialsOfB.size; i += 2)
+            addEdge(A, existentialsOfB.elements[i], existentialsOfB.elements[i + 1]);
+        // ∃r.B ⊑ C
+        final IntList existentialsOnB = existentialsOn.get(B);
+        if (existentialsOnB != null)
+          for (int i = 0; i < existentialsOnB.size; i += 2) {
+            final IntList predecessorsOfA = predecessors.get(existentialsOnB.elements[i]).get(A);
+            if (predecessorsOfA != null)
+              for (int j = 0; j < predecessorsOfA.size; j++)
+                addFact(predecessorsOfA.elements[j], existentialsOnB.elements[i + 1]);
+          }
+        // ∃r.⊥ ⊑ ⊥
+        if (B == BOT)
+          for (List<IntList> predecessorsOfRole : predecessors) {
+            final IntList predecessorsOfA = predecessorsOfRole.get(A);
+            if (predecessorsOfA != null)
+              for (int j = 0; j < predecessorsOfA.size; j++)
+                addFact(predecessorsOfA.elements[j], BOT);
+          }
+      }
+      if (edges.size > 0) {
+        final int B = edges.elements[--edges.size];
+        final int r = edges.elements[--edges.size];
+        final int A = edges.elements[--edges.size];
+        final BitSetFX subsumersOfB = subsumers.get(B);
+        if (subsumersOfB.get(BOT))
+          addFact(A, BOT);
+        // ∃r.C ⊑ D, where the smaller one of S(B) and the axioms with r is iterated
+        final IntList existentialsWithRole = existentialsWith.get(r);
+        if (existentialsWithRole.size / 2 <= subsumersOfB.cardinality()) {
+          for (int i = 0; i < existentialsWithRole.size; i += 2)
+            if (subsumersOfB.get(existentialsWithRole.elements[i]))
+              addFact(A, existentialsWithRole.elements[i + 1]);
+        } else
+          for (int C = subsumersOfB.nextSetBit(0); C >= 0; C = subsumersOfB.nextSetBit(C + 1)) {
+            final IntList existentialsOnC = existentialsOn.get(C);
+            if (existentialsOnC != null)
+              for (int i = 0; i < existentialsOnC.size; i += 2)
+                if (existentialsOnC.elements[i] == r)
+                  addFact(A, existentialsOnC.elements[i + 1]);
+          }
+      }
+    }
+  }
+
+  /**
+   * Discards the indices of the queried concept descriptions, i.e., restores the state after the saturation of the
+   * TBox. Since the queried indices only occur on the left-hand side of their inclusions, they have neither been
+   * derived as subsumers nor as role successors of the indices below {@link #defined}, only the tails of their
+   * predecessor lists refer to them.
+   */
+  private final void rollback() {
+    for (Entry<Map<?, Integer>, ?> key : queried)
+      key.getKey().remove(key.getValue());
+    queried.clear();
+    for (int i = 0; i < queriedPredecessors.size; i += 2) {
+      final IntList predecessorsOfB =
+          predecessors.get(queriedPredecessors.elements[i]).get(queriedPredecessors.elements[i + 1]);
+      while (predecessorsOfB.size > 0 && predecessorsOfB.elements[predecessorsOfB.size - 1] >= defined)
+        predecessorsOfB.size--;
+    }
+    queriedPredecessors.size = 0;
+    facts.size = 0;
+    edges.size = 0;
+    if (size > defined) {
+      truncate(conjunctionsWith, defined);
+      truncate(existentialsOf, defined);
+      truncate(existentialsOn, defined);
+      truncate(subsumers, Math.min(defined, subsumers.size()));
+      for (List<IntList> successorsOfRole : successors)
+        truncate(successorsOfRole, defined);
+      for (List<IntList> predecessorsOfRole : predecessors)
+        truncate(predecessorsOfRole, defined);
+      size = defined;
+      saturated = Math.min(saturated, defined);
+    }
+    truncate(conjunctions, definedConjunctions);
+    conclusions.size = definedConjunctions;
+    if (successors.size() > definedRoles) {
+      roleNameIndex.values().removeIf(r -> r >= definedRoles);
+      truncate(successors, definedRoles);
+      truncate(predecessors, definedRoles);
+      truncate(existentialsWith, definedRoles);
+    }
+  }
+
+  private static final void truncate(final List<?> list, final int size) {
+    list.subList(size, list.size()).clear();
+  }
+
+  private final boolean isSubsumedBy(final int C, final int D) {
+    final BitSetFX subsumersOfC = subsumers.get(C);
+    return subsumersOfC.get(D) || subsumersOfC.get(BOT);
+  }
+
+  /**
+   * The saturated subsumers and role successors form the canonical model of the TBox, i.e., C is subsumed by D iff the
+   * index C is an instance of D in this model. Since the queried concept descriptions are not defined by equivalences,
+   * only indices below {@link #defined} can be looked up in the subsumers, the others are checked recursively. The
+   * memo maps each sub-description of D to the indices that are instances of it and to those that are not.
+   */
+  private final boolean isInstanceOf(
+      final int C,
+      final ImmutableELConceptDescription D,
+      final Map<ImmutableELConceptDescription, BitSetFX[]> memo) {
+    final BitSetFX subsumersOfC = subsumers.get(C);
+    if (subsumersOfC.get(BOT))
+      return true;
+    final Integer index = nodeIndex.get(D);
+    if (index != null && index < defined)
+      return subsumersOfC.get(index);
+    final BitSetFX[] instances = memo.computeIfAbsent(D, __ -> new BitSetFX[] { new BitSetFX(), new BitSetFX() });
+    if (instances[0].get(C))
+      return true;
+    if (instances[1].get(C))
+      return false;
+    final boolean isInstance = isInstanceOf(subsumersOfC, C, D, memo);
+    instances[isInstance ? 0 : 1].set(C);
+    return isInstance;
+  }
+
+  private final boolean isInstanceOf(
+      final BitSetFX subsumersOfC,
+      final int C,
+      final ImmutableELConceptDescription D,
+      final Map<ImmutableELConceptDescription, BitSetFX[]> memo) {
+    for (IRI A : D.getConceptNames())
+      if (A.equals(NOTHING))
+        return false;
+      else if (!A.equals(THING)) {
+        final Integer index = conceptNameIndex.get(A);
+        if (index == null || !subsumersOfC.get(index))
+          return false;
+      }
+    for (Entry<IRI, OWLLiteral> dataValue : D.getDataValues().entries()) {
+      final Integer index = dataValueIndex.get(dataValue);
+      if (index == null || !subsumersOfC.get(index))
+        return false;
+    }
+    for (Entry<IRI, ImmutableELConceptDescription> existentialRestriction : D.getExistentialRestrictions().entries()) {
+      final Integer r = roleNameIndex.get(existentialRestriction.getKey());
+      final IntList successorsOfC = r == null ? null : successors.get(r).get(C);
+      boolean found = false;
+      if (successorsOfC != null)
+        for (int i = 0; i < successorsOfC.size && !found; i++)
+          found = isInstanceOf(successorsOfC.elements[i], existentialRestriction.getValue(), memo);
+      if (!found)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return true, iff concept1 is subsumed by concept2 w.r.t. the TBox
+   */
+  public final synchronized boolean
+      isSubsumedBy(final ELConceptDescription concept1, final ELConceptDescription concept2) {
+    try {
+      final int C = queryIndexOf(concept1.intern());
+      saturate();
+      return isInstanceOf(C, concept2.intern(), new IdentityHashMap<>());
+    } finally {
+      rollback();
+    }
+  }
+
+  /**
+   * @return true, iff the given concept description is not equivalent to ⊥ w.r.t. the TBox
+   */
+  public final synchronized boolean isSatisfiable(final ELConceptDescription concept) {
+    try {
+      final int C = queryIndexOf(concept.intern());
+      saturate();
+      return !subsumers.get(C).get(BOT);
+    } finally {
+      rollback();
+    }
+  }
+
+  /**
+   * @return the concept names that subsume the given concept description w.r.t. the TBox, where only concept names
+   *         that occur in the TBox or in the given concept description are considered
+   */
+  public final synchronized Set<IRI> getSubsumers(final ELConceptDescription concept) {
+    try {
+      final int C = queryIndexOf(concept.intern());
+      saturate();
+      final Set<IRI> subsumersOfC = new HashSet<>();
+      for (Entry<IRI, Integer> conceptName : conceptNameIndex.entrySet())
+        if (isSubsumedBy(C, conceptName.getValue()))
+          subsumersOfC.add(conceptName.getKey());
+      return subsumersOfC;
+    } finally {
+      rollback();
+    }
+  }
+
+  /**
+   * @return the subsumption relation between all concept names that occur in the TBox, which contains (A, B) iff A is
+   *         subsumed by B w.r.t. the TBox
+   */
+  public final synchronized MatrixRelation<IRI, IRI> getTaxonomy() {
+    saturate();
+    final SetList<IRI> conceptNames = SetLists.create(conceptNameIndex.keySet());
+    final MatrixRelation<IRI, IRI> taxonomy = new MatrixRelation<>(conceptNames, conceptNames, true);
+    for (int i = 0; i < conceptNames.size(); i++) {
+      final int A = conceptNameIndex.get(conceptNames.get(i));
+      for (int j = 0; j < conceptNames.size(); j++)
+        if (isSubsumedBy(A, conceptNameIndex.get(conceptNames.get(j))))
+          taxonomy.matrix().setBoolean(true, i, j);
+    }
+    return taxonomy;
+  }
+
+  /**
+   * Like {@link ELReasoningSession#subsumptionMatrix(Collection)}.
+   */
+  public final synchronized MatrixRelation<ELConceptDescription, ELConceptDescription>
+      subsumptionMatrix(final Collection<? extends ELConceptDescription> concepts) {
+    final SetList<ELConceptDescription> heads = SetLists.create(concepts);
+    final MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix =
+        new MatrixRelation<>(heads, heads, true);
+    fill(subsumptionMatrix);
+    return subsumptionMatrix;
+  }
+
+  /**
+   * Like {@link ELReasoningSession#subsumptionMatrix(Collection, Collection)}.
+   */
+  public final synchronized MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix(
+      final Collection<? extends ELConceptDescription> subsumees,
+      final Collection<? extends ELConceptDescription> subsumers) {
+    final MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix =
+        new MatrixRelation<>(SetLists.create(subsumees), SetLists.create(subsumers), false);
+    fill(subsumptionMatrix);
+    return subsumptionMatrix;
+  }
+
+  private final void fill(final MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix) {
+    try {
+      final int[] subsumees = new int[subsumptionMatrix.rowHeads().size()];
+      int i = 0;
+      for (ELConceptDescription C : subsumptionMatrix.rowHeads())
+        subsumees[i++] = queryIndexOf(C.intern());
+      final ImmutableELConceptDescription[] subsumers =
+          new ImmutableELConceptDescription[subsumptionMatrix.colHeads().size()];
+      int j = 0;
+      for (ELConceptDescription D : subsumptionMatrix.colHeads())
+        subsumers[j++] = D.intern();
+      saturate();
+      // the memo is shared by all tests, since the subsumers are checked for every subsumee
+      final Map<ImmutableELConceptDescription, BitSetFX[]> memo = new IdentityHashMap<>();
+      for (i = 0; i < subsumees.length; i++)
+        for (j = 0; j < subsumers.length; j++)
+          if (isInstanceOf(subsumees[i], subsumers[j], memo))
+            subsumptionMatrix.matrix().setBoolean(true, i, j);
+    } finally {
+      rollback();
+    }
+  }
+
+  /**
+   * Like {@link ELReasoningSession#pairwiseSubsumptionMatrix(Collection)}.
+   */
+  public final synchronized MatrixRelation<ELConceptDescription, ELConceptDescription> pairwiseSubsumptionMatrix(
+      final Collection<? extends Entry<? extends ELConceptDescription, ? extends ELConceptDescription>> pairs) {
+    try {
+      final Set<ELConceptDescription> subsumees = new HashSet<>();
+      final Set<ELConceptDescription> subsumers = new HashSet<>();
+      for (Entry<? extends ELConceptDescription, ? extends ELConceptDescription> pair : pairs) {
+        subsumees.add(pair.getKey());
+        subsumers.add(pair.getValue());
+        queryIndexOf(pair.getKey().intern());
+      }
+      final MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix =
+          new MatrixRelation<>(SetLists.create(subsumees), SetLists.create(subsumers), false);
+      saturate();
+      final Map<ImmutableELConceptDescription, BitSetFX[]> memo = new IdentityHashMap<>();
+      for (Entry<? extends ELConceptDescription, ? extends ELConceptDescription> pair : pairs)
+        if (isInstanceOf(nodeIndex.get(pair.getKey().intern()), pair.getValue().intern(), memo))
+          subsumptionMatrix.addFastSilent(pair.getKey(), pair.getValue());
+      return subsumptionMatrix;
+    } finally {
+      rollback();
+    }
+  }
+
+  @Override
+  public final synchronized String toString() {
+    return "EL classifier with " + size + " indices, " + conjunctions.size() + " conjunctions and "
+        + existentialIndex.size() + " existential restrictions";
+  }
+
+}
@@ -22,15 +22,21 @@ package conexp.fx.core.dl;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
@@ -44,13 +50,22 @@ import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Collections2;
+import com.google.common.collect.ForwardingIterator;
+import com.google.common.collect.ForwardingSet;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
 import com.google.common.collect.Sets;
+import com.google.common.collect.Streams;
 
 import conexp.fx.core.collections.Collections3;
-import conexp.fx.core.collections.Pair;
 import conexp.fx.core.math.LatticeElement;
 import conexp.fx.core.util.UnicodeSymbols;
 
@@ -62,6 +77,10 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
     return new ELConceptDescription(concept);
   }
 
+  public static final ELConceptDescription of(final ImmutableELConceptDescription concept) {
+    return concept.toELConceptDescription();
+  }
+
   public static final ELConceptDescription parse(final String expression) {
     return ELParser.read(expression);
   }
@@ -162,6 +181,22 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
   private final Set<IRI>                            conceptNames;
   private final Multimap<IRI, OWLLiteral>                         dataValues;
   private final Multimap<IRI, ELConceptDescription> existentialRestrictions;
+  /**
+   * the concept descriptions that have (or had) this one as a filler of an existential restriction, which must be
+   * notified whenever this concept description is modified
+   */
+  private volatile Set<ELConceptDescription>        parents;
+  /**
+   * true, if this concept description or one of its ancestors holds information derived from the contents of this
+   * concept description, i.e., if modifications must be propagated to the parents
+   */
+  private volatile boolean                          observed     = false;
+  private volatile boolean                          reduced      = false;
+  private volatile ELConceptDescription             reducedForm  = null;
+  private volatile ImmutableELConceptDescription    interned     = null;
+  private volatile int                              rank         = -1;
+  private volatile int                              rank4        = -1;
+  private volatile Summary                          summary      = null;
   // private final Set<Pair<IRI, ELConceptDescription>> valueRestrictions;
   // private final Set<Pair<Pair<Integer, IRI>, ELConceptDescription>>
   // qualifiedGreaterThanRestrictions;
@@ -176,10 +211,7 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
    *          Creates a new EL normal form from an OWLClassExpression.
    */
   public ELConceptDescription(final OWLClassExpression concept) {
-    super();
-    this.conceptNames = new HashSet<>();
-    this.existentialRestrictions = HashMultimap.create();
-    this.dataValues = HashMultimap.create();
+    this();
     if (concept.isOWLThing())
       return;
     if (concept.isOWLNothing()) {
@@ -254,26 +286,234 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
    * @param existentialRestrictions
    *
    *          Creates a new EL normal form. If the sets conceptNames and existentitalRestrictions are both empty, then
-   *          the constructed normal form represents the top concept.
+   *          the constructed normal form represents the top concept. The given collections are copied, since all
+   *          modifications of a concept description must be tracked. Unlike in earlier versions, the new concept
+   *          description does not share the given collections, i.e., later modifications of them are not reflected in
+   *          it; modify it through {@link #getConceptNames()} and {@link #getExistentialRestrictions()} instead.
    */
   public ELConceptDescription(
       final Set<IRI> conceptNames,
       final Multimap<IRI, ELConceptDescription> existentialRestrictions) {
-    super();
-    this.conceptNames = conceptNames;
-    this.existentialRestrictions = existentialRestrictions;
-    this.dataValues = HashMultimap.create(); // TODO in order not to break the api somehow
+    this();
+    this.conceptNames.addAll(conceptNames);
+    this.existentialRestrictions.putAll(existentialRestrictions);
   }
 
   public ELConceptDescription() {
-    this.conceptNames = Sets.newHashSet();
-    this.existentialRestrictions = HashMultimap.create();
-    this.dataValues = HashMultimap.create();
+    super();
+    this.conceptNames = new NotifyingSet<>();
+    this.existentialRestrictions = Multimaps.newSetMultimap(new HashMap<>(), () -> new FillerSet());
+    this.dataValues = Multimaps.newSetMultimap(new HashMap<>(), () -> new NotifyingSet<>());
+  }
+
+  /**
+   * A hash set that notifies the enclosing concept description of each modification.
+   */
+  private class NotifyingSet<E> extends ForwardingSet<E> {
+
+    private final Set<E> delegate = new HashSet<>();
+
+    @Override
+    protected Set<E> delegate() {
+      return delegate;
+    }
+
+    protected void added(final E element) {}
+
+    @Override
+    public boolean add(final E element) {
+      if (!delegate.add(element))
+        return false;
+      added(element);
+      modified();
+      return true;
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends E> collection) {
+      return standardAddAll(collection);
+    }
+
+    @Override
+    public boolean remove(final Object object) {
+      if (!delegate.remove(object))
+        return false;
+      modified();
+      return true;
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> collection) {
+      if (!delegate.removeAll(collection))
+        return false;
+      modified();
+      return true;
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> collection) {
+      if (!delegate.retainAll(collection))
+        return false;
+      modified();
+      return true;
+    }
+
+    @Override
+    public void clear() {
+      if (delegate.isEmpty())
+        return;
+      delegate.clear();
+      modified();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+      final Iterator<E> iterator = delegate.iterator();
+      return new ForwardingIterator<E>() {
+
+        @Override
+        protected Iterator<E> delegate() {
+          return iterator;
+        }
+
+        @Override
+        public void remove() {
+          iterator.remove();
+          modified();
+        }
+      };
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+      return delegate.spliterator();
+    }
+
+  }
+
+  /**
+   * The set of fillers of some role name, which additionally registers the enclosing concept description as a parent
+   * of each added filler.
+   */
+  private final class FillerSet extends NotifyingSet<ELConceptDescription> {
+
+    @Override
+    protected void added(final ELConceptDescription filler) {
+      filler.addParent(ELConceptDescription.this);
+    }
+
+  }
+
+  private final void addParent(final ELConceptDescription parent) {
+    if (parents == null)
+      synchronized (this) {
+        if (parents == null)
+          parents = Collections.newSetFromMap(new MapMaker().weakKeys().concurrencyLevel(1).makeMap());
+      }
+    parents.add(parent);
+  }
+
+  /**
+   * Marks this concept description and all its sub-descriptions as observed, i.e., subsequent modifications will
+   * invalidate all information that is cached in this concept description.
+   */
+  private final void observe() {
+    if (observed)
+      return;
+    observed = true;
+    for (ELConceptDescription filler : existentialRestrictions.values())
+      filler.observe();
+  }
+
+  /**
+   * Discards all cached information of this concept description and its ancestors. If this concept description is not
+   * observed, then neither it nor any of its ancestors hold cached information, and nothing needs to be done.
+   */
+  private final void modified() {
+    if (!observed)
+      return;
+    observed = false;
+    reduced = false;
+    reducedForm = null;
+    interned = null;
+    rank = -1;
+    rank4 = -1;
+    summary = null;
+    if (parents != null)
+      for (ELConceptDescription parent : parents)
+        parent.modified();
+  }
+
+  /**
+   * Information about a concept description that is derived bottom-up from the summaries of its fillers. The summary
+   * is cached until the concept description is modified, and since modifications are only propagated to the ancestors,
+   * a modification only requires to re-compute the summaries along the path to the root.
+   */
+  private static final class Summary {
+
+    private final boolean           isBot;
+    private final int               roleDepth;
+    private final int               size;
+    private final int               size2;
+    private final ImmutableSet<IRI> conceptNamesInSignature;
+    private final ImmutableSet<IRI> roleNamesInSignature;
+    private final long              signatureMask;
+
+    private Summary(final ELConceptDescription concept) {
+      super();
+      boolean isBot = concept.conceptNames.contains(df.getOWLNothing().getIRI());
+      int roleDepth = 0;
+      int size = 2 * concept.conceptNames.size() + concept.existentialRestrictions.size() - 1;
+      int size2 = concept.conceptNames.size();
+      final ImmutableSet.Builder<IRI> conceptNamesInSignature = ImmutableSet.builder();
+      final ImmutableSet.Builder<IRI> roleNamesInSignature = ImmutableSet.builder();
+      long signatureMask = 0L;
+      conceptNamesInSignature.addAll(concept.conceptNames);
+      roleNamesInSignature.addAll(concept.existentialRestrictions.keySet());
+      for (IRI A : concept.conceptNames)
+        signatureMask |= ImmutableELConceptDescription.conceptNameBit(A);
+      for (IRI r : concept.existentialRestrictions.keySet())
+        signatureMask |= ImmutableELConceptDescription.roleNameBit(r);
+      for (ELConceptDescription filler : concept.existentialRestrictions.values()) {
+        final Summary summary = filler.summary();
+        isBot |= summary.isBot;
+        signatureMask |= summary.signatureMask;
+        roleDepth = Math.max(roleDepth, 1 + summary.roleDepth);
+        size += 1 + summary.size;
+        size2 += 1 + summary.size2;
+        conceptNamesInSignature.addAll(summary.conceptNamesInSignature);
+        roleNamesInSignature.addAll(summary.roleNamesInSignature);
+      }
+      this.isBot = isBot;
+      this.roleDepth = roleDepth;
+      this.size = Math.max(1, size);
+      this.size2 = size2;
+      this.conceptNamesInSignature = conceptNamesInSignature.build();
+      this.roleNamesInSignature = roleNamesInSignature.build();
+      this.signatureMask = signatureMask;
+    }
+
+  }
+
+  private final Summary summary() {
+    final Summary summary = this.summary;
+    if (summary != null)
+      return summary;
+    final Summary newSummary = new Summary(this);
+    observe();
+    this.summary = newSummary;
+    return newSummary;
   }
 
   public final boolean isBot() {
-    return conceptNames.contains(df.getOWLNothing().getIRI())
-        || existentialRestrictions.values().parallelStream().anyMatch(ELConceptDescription::isBot);
+    return summary().isBot;
+  }
+
+  /**
+   * @return the signature mask of this concept description, cf. {@link ImmutableELConceptDescription#signatureMask()}
+   */
+  final long signatureMask() {
+    return summary().signatureMask;
   }
 
   public final boolean isTop() {
@@ -283,26 +523,18 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
 
   public final Signature getSignature() {
     final Signature sigma = new Signature(IRI.generateDocumentIRI());
-    sigma.getConceptNames().addAll(getConceptNamesInSignature().collect(Collectors.toSet()));
-    sigma.getRoleNames().addAll(getRoleNamesInSignature().collect(Collectors.toSet()));
+    final Summary summary = summary();
+    sigma.getConceptNames().addAll(summary.conceptNamesInSignature);
+    sigma.getRoleNames().addAll(summary.roleNamesInSignature);
     return sigma;
   }
 
   protected final Stream<IRI> getConceptNamesInSignature() {
-    return Stream
-        .concat(
-            conceptNames.parallelStream(),
-            existentialRestrictions
-                .values()
-                .parallelStream()
-                .flatMap(ELConceptDescription::getConceptNamesInSignature));
+    return summary().conceptNamesInSignature.stream();
   }
 
   protected final Stream<IRI> getRoleNamesInSignature() {
-    return Stream
-        .concat(
-            existentialRestrictions.keys().parallelStream(),
-            existentialRestrictions.values().parallelStream().flatMap(ELConceptDescription::getRoleNamesInSignature));
+    return summary().roleNamesInSignature.stream();
   }
 
   public final Set<IRI> getConceptNames() {
@@ -317,6 +549,27 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
     return dataValues;
   }
 
+  /**
+   * @return the hash-consed, immutable counterpart of this concept description
+   */
+  public final ImmutableELConceptDescription intern() {
+    final ImmutableELConceptDescription interned = this.interned;
+    if (interned != null)
+      return interned;
+    final ImmutableELConceptDescription newInterned = ImmutableELConceptDescription.of(this);
+    observe();
+    this.interned = newInterned;
+    return newInterned;
+  }
+
+  /**
+   * @return the fingerprint of the reduced form of this concept description, i.e., equivalent concept descriptions
+   *         have the same fingerprint, cf. {@link ImmutableELConceptDescription#fingerprint()}
+   */
+  public final long fingerprint() {
+    return getReducedForm().intern().fingerprint();
+  }
+
   public final OWLClassExpression toOWLClassExpression() {
     if (isTop())
       return df.getOWLThing();
@@ -376,6 +629,154 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
     return result;
   }
 
+  /**
+   * @return the reduced form of the conjunction of the given concept descriptions, which is built from copies of their
+   *         reduced forms by means of {@link #addConceptName(IRI)} and
+   *         {@link #addExistentialRestriction(IRI, ELConceptDescription)}
+   */
+  public static final ELConceptDescription conjunctionReduced(final ELConceptDescription... conjuncts) {
+    return conjunctionReduced(Arrays.asList(conjuncts));
+  }
+
+  public static final ELConceptDescription conjunctionReduced(final Collection<ELConceptDescription> conjuncts) {
+    final Iterator<ELConceptDescription> it = conjuncts.iterator();
+    if (!it.hasNext())
+      return ELConceptDescription.top().reduce();
+    final ELConceptDescription conjunction = it.next().getReducedForm().clone();
+    while (it.hasNext() && !conjunction.isBot()) {
+      final ELConceptDescription conjunct = it.next().getReducedForm();
+      conjunct.conceptNames.forEach(conjunction::addConceptName);
+      conjunct.existentialRestrictions
+          .entries()
+          .forEach(ER -> conjunction.addExistentialRestriction(ER.getKey(), ER.getValue().clone()));
+    }
+    return conjunction;
+  }
+
+  public final ELConceptDescription andReduced(final ELConceptDescription that) {
+    return ELConceptDescription.conjunctionReduced(this, that);
+  }
+
+  /**
+   * Adds the given concept name to this concept description. If this concept description is reduced, then it stays
+   * reduced.
+   * 
+   * @return this concept description
+   */
+  public final ELConceptDescription addConceptName(final IRI conceptName) {
+    final boolean reduced = this.reduced;
+    if (reduced && conceptName.equals(df.getOWLNothing().getIRI()))
+      return this.setBot();
+    // the reduced form of a bottom concept description is owl:Nothing, which absorbs every further conjunct
+    if (reduced && (conceptName.equals(df.getOWLThing().getIRI()) || isReducedBot()))
+      return this;
+    conceptNames.add(conceptName);
+    if (reduced)
+      keepReduced();
+    return this;
+  }
+
+  /**
+   * Adds the existential restriction with the given role name and filler to this concept description. If this concept
+   * description is reduced, then it stays reduced: the filler is reduced in place, and it is only compared with the
+   * fillers of the same role name, i.e., the new existential restriction is dropped if it is redundant, and the
+   * existential restrictions that become redundant are removed.
+   * 
+   * @return this concept description
+   */
+  public final ELConceptDescription addExistentialRestriction(final IRI roleName, final ELConceptDescription filler) {
+    if (!this.reduced) {
+      existentialRestrictions.put(roleName, filler);
+      return this;
+    }
+    if (isReducedBot())
+      return this;
+    if (filler.isBot())
+      return this.setBot();
+    filler.reduce();
+    final ImmutableELConceptDescription F = filler.intern();
+    final Collection<ELConceptDescription> siblings = existentialRestrictions.get(roleName);
+    if (siblings.stream().anyMatch(E -> mayBeSubsumedBy(E.intern(), F) && E.isSubsumedBy(filler)))
+      return this;
+    final List<ELConceptDescription> subsumers = siblings
+        .stream()
+        .filter(E -> mayBeSubsumedBy(F, E.intern()) && filler.isSubsumedBy(E))
+        .collect(Collectors.toList());
+    subsumers.forEach(E -> existentialRestrictions.remove(roleName, E));
+    existentialRestrictions.put(roleName, filler);
+    keepReduced();
+    return this;
+  }
+
+  /**
+   * Replaces the given existential restriction of this concept description by existential restrictions with the same
+   * role name and the given fillers, cf. {@link #addExistentialRestriction(IRI, ELConceptDescription)}. If this
+   * concept description is reduced, then it stays reduced.
+   * 
+   * @return this concept description
+   */
+  public final ELConceptDescription replaceExistentialRestriction(
+      final IRI roleName,
+      final ELConceptDescription filler,
+      final Collection<ELConceptDescription> newFillers) {
+    final boolean reduced = this.reduced;
+    existentialRestrictions.remove(roleName, filler);
+    // the remaining existential restrictions are still pairwise incomparable
+    if (reduced)
+      keepReduced();
+    newFillers.forEach(newFiller -> addExistentialRestriction(roleName, newFiller));
+    return this;
+  }
+
+  /**
+   * Removes the given concept name from this concept description. If this concept description is reduced, then it
+   * stays reduced.
+   * 
+   * @return this concept description
+   */
+  public final ELConceptDescription removeConceptName(final IRI conceptName) {
+    final boolean reduced = this.reduced;
+    conceptNames.remove(conceptName);
+    if (reduced)
+      keepReduced();
+    return this;
+  }
+
+  private final boolean isReducedBot() {
+    return conceptNames.contains(df.getOWLNothing().getIRI());
+  }
+
+  private final ELConceptDescription setBot() {
+    conceptNames.clear();
+    conceptNames.add(df.getOWLNothing().getIRI());
+    existentialRestrictions.clear();
+    keepReduced();
+    return this;
+  }
+
+  /**
+   * @return a fresh, mutable copy of the given concept description, which must be reduced, such that the copy and all
+   *         its sub-descriptions are known to be reduced
+   */
+  static final ELConceptDescription reducedCopyOf(final ImmutableELConceptDescription reducedForm) {
+    final ELConceptDescription copy = new ELConceptDescription();
+    copy.conceptNames.addAll(reducedForm.getConceptNames());
+    copy.dataValues.putAll(reducedForm.getDataValues());
+    for (Entry<IRI, ImmutableELConceptDescription> ER : reducedForm.getExistentialRestrictions().entries())
+      copy.existentialRestrictions.put(ER.getKey(), reducedCopyOf(ER.getValue()));
+    copy.keepReduced();
+    copy.interned = reducedForm;
+    return copy;
+  }
+
+  /**
+   * Restores the flag that has been reset by a modification which is known to preserve the reduced form.
+   */
+  private final void keepReduced() {
+    observe();
+    reduced = true;
+  }
+
   public final void set(final ELConceptDescription that) {
     this.conceptNames.clear();
     this.existentialRestrictions.clear();
@@ -406,46 +807,155 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
     return other.isLowerNeighborOf(this);
   }
 
+  /**
+   * @return true, if this concept description is known to be in reduced form, i.e., if it has been reduced (or copied
+   *         from a reduced concept description) and has not been modified since then
+   */
+  public final boolean isReduced() {
+    return reduced;
+  }
+
+  /**
+   * @return a reduced concept description that is equivalent to this one, which is either this very instance if it is
+   *         known to be in reduced form, or a reduced copy that is cached until the next modification of this concept
+   *         description. The returned object must not be modified, use {@link #clone()} first.
+   */
+  public final ELConceptDescription getReducedForm() {
+    if (reduced)
+      return this;
+    final ELConceptDescription reducedForm = this.reducedForm;
+    // a modification of the cached copy would have reset its flag
+    if (reducedForm != null && reducedForm.reduced)
+      return reducedForm;
+    final ELConceptDescription newReducedForm = this.clone().reduce();
+    observe();
+    this.reducedForm = newReducedForm;
+    return newReducedForm;
+  }
+
   public final ELConceptDescription reduce() {
-    if (isBot()) {
-      conceptNames.clear();
-      conceptNames.add(df.getOWLNothing().getIRI());
-      existentialRestrictions.clear();
-    } else {
-      conceptNames.remove(df.getOWLThing().getIRI());
-      for (Entry<IRI, ELConceptDescription> er : existentialRestrictions.entries())
-        er.getValue().reduce();
-      final Function<Entry<IRI, ELConceptDescription>, Stream<Pair<Entry<IRI, ELConceptDescription>, Entry<IRI, ELConceptDescription>>>> f =
-          er1 -> existentialRestrictions
-              .entries()
-              .parallelStream()
-              .filter(er2 -> er1.getKey().equals(er2.getKey()))
-              .filter(er2 -> !er1.equals(er2))
-              .map(er2 -> Pair.of(er1, er2));
-      final Set<Entry<IRI, ELConceptDescription>> superfluousERs = existentialRestrictions
-          .entries()
-          .parallelStream()
-          .map(f)
-          .reduce(Stream::concat)
-          .orElseGet(Stream::empty)
-          .filter(p -> p.first().getValue().isSubsumedBy(p.second().getValue()))
-          .map(Pair::second)
-          .collect(Collectors.toSet());
-      superfluousERs.forEach(x -> existentialRestrictions.remove(x.getKey(), x.getValue()));
+    if (reduced)
+      return this;
+    return ELExecutionContext.enter(() -> {
+      if (isBot()) {
+        conceptNames.clear();
+        conceptNames.add(df.getOWLNothing().getIRI());
+        existentialRestrictions.clear();
+      } else {
+        conceptNames.remove(df.getOWLThing().getIRI());
+        if (!existentialRestrictions.isEmpty()) {
+          final boolean fillersReduced =
+              existentialRestrictions.values().stream().allMatch(ELConceptDescription::isReduced);
+          final Multimap<IRI, ELConceptDescription> reducedFillers =
+              fillersReduced ? existentialRestrictions : reduceFillers(existentialRestrictions);
+          final Multimap<IRI, ELConceptDescription> mostSpecificFillers = HashMultimap.create();
+          for (IRI r : reducedFillers.keySet())
+            mostSpecificFillers.putAll(r, mostSpecific(reducedFillers.get(r)));
+          // reducing the fillers in place changes their hash codes, so they must be re-inserted
+          if (!fillersReduced || mostSpecificFillers.size() < existentialRestrictions.size()) {
+            existentialRestrictions.clear();
+            existentialRestrictions.putAll(mostSpecificFillers);
+          }
+        }
+      }
+      observe();
+      reduced = true;
+      return this;
+    });
+  }
+
+  /**
+   * Reduces all fillers of the given existential restrictions in place. Each distinct filler is only reduced once, and
+   * fillers that are equal to another one are replaced by a copy of its reduced form.
+   * 
+   * @return the existential restrictions with the reduced fillers
+   */
+  private static final Multimap<IRI, ELConceptDescription>
+      reduceFillers(final Multimap<IRI, ELConceptDescription> existentialRestrictions) {
+    final List<Entry<IRI, ELConceptDescription>> ers = new ArrayList<>(existentialRestrictions.entries());
+    // must be determined before the first filler is reduced, since this changes the hash codes
+    final Map<ELConceptDescription, ELConceptDescription> distinctFillers = new HashMap<>();
+    final List<ELConceptDescription> representatives = new ArrayList<>(ers.size());
+    for (Entry<IRI, ELConceptDescription> er : ers)
+      if (er.getValue().isReduced())
+        representatives.add(er.getValue());
+      else
+        representatives.add(distinctFillers.computeIfAbsent(er.getValue(), filler -> filler));
+    // sequentially, since distinct fillers may still share sub-descriptions, which reduce() modifies in place
+    distinctFillers.values().forEach(ELConceptDescription::reduce);
+    final Multimap<IRI, ELConceptDescription> reducedFillers = HashMultimap.create();
+    for (int i = 0; i < ers.size(); i++) {
+      final ELConceptDescription filler = ers.get(i).getValue();
+      final ELConceptDescription representative = representatives.get(i);
+      reducedFillers.put(ers.get(i).getKey(), filler == representative ? filler : representative.clone());
     }
-    return this;
+    return reducedFillers;
+  }
+
+  /**
+   * Determines the most specific ones among the given reduced fillers, i.e., those that are not subsumed by another
+   * filler. Candidates are processed in descending order of role depth and number of concept names. Since both
+   * measures are monotone w.r.t. subsumption, a candidate can only be subsumed by a previously kept filler that has all
+   * of its concept names, and it can only subsume a previously kept filler that has the same role depth and the same
+   * concept names. The kept fillers are indexed by their concept names, i.e., if the fillers are pairwise incomparable
+   * by concept names, then the number of subsumption tests is linear.
+   */
+  private static final Collection<ELConceptDescription>
+      mostSpecific(final Collection<ELConceptDescription> reducedFillers) {
+    if (reducedFillers.size() < 2)
+      return reducedFillers;
+    final Map<ImmutableELConceptDescription, ELConceptDescription> fillers = new HashMap<>();
+    for (ELConceptDescription filler : reducedFillers)
+      fillers.put(filler.intern(), filler);
+    final List<ImmutableELConceptDescription> candidates = new ArrayList<>(fillers.keySet());
+    candidates
+        .sort(
+            Comparator
+                .comparingInt(ImmutableELConceptDescription::roleDepth)
+                .thenComparingInt(C -> C.getConceptNames().size())
+                .thenComparingInt(ImmutableELConceptDescription::size)
+                .reversed());
+    final Set<ImmutableELConceptDescription> mostSpecific = new HashSet<>();
+    final Multimap<IRI, ImmutableELConceptDescription> index = HashMultimap.create();
+    for (ImmutableELConceptDescription E : candidates) {
+      Collection<ImmutableELConceptDescription> comparables = mostSpecific;
+      for (IRI A : E.getConceptNames())
+        if (index.get(A).size() < comparables.size())
+          comparables = index.get(A);
+      if (comparables
+          .stream()
+          .anyMatch(K -> mayBeSubsumedBy(K, E) && fillers.get(K).isSubsumedBy(fillers.get(E))))
+        continue;
+      final List<ImmutableELConceptDescription> subsumers = comparables
+          .stream()
+          .filter(K -> K.roleDepth() == E.roleDepth() && K.getConceptNames().equals(E.getConceptNames()))
+          .filter(K -> mayBeSubsumedBy(E, K) && fillers.get(E).isSubsumedBy(fillers.get(K)))
+          .collect(Collectors.toList());
+      for (ImmutableELConceptDescription K : subsumers) {
+        mostSpecific.remove(K);
+        for (IRI A : K.getConceptNames())
+          index.remove(A, K);
+      }
+      mostSpecific.add(E);
+      for (IRI A : E.getConceptNames())
+        index.put(A, E);
+    }
+    return Collections2.transform(mostSpecific, fillers::get);
+  }
+
+  /**
+   * @return false, if C is certainly not subsumed by D; only applicable if C is not unsatisfiable
+   */
+  private static final boolean
+      mayBeSubsumedBy(final ImmutableELConceptDescription C, final ImmutableELConceptDescription D) {
+    return (D.signatureMask() & ~C.signatureMask()) == 0L && C.roleDepth() >= D.roleDepth()
+        && C.getConceptNames().containsAll(D.getConceptNames())
+        && C.getExistentialRestrictions().keySet().containsAll(D.getExistentialRestrictions().keySet())
+        && C.getDataValues().entries().containsAll(D.getDataValues().entries());
   }
 
   public final int roleDepth() {
-    if (existentialRestrictions.isEmpty())
-      return 0;
-    return 1 + existentialRestrictions
-        .entries()
-        .parallelStream()
-        .map(Entry::getValue)
-        .map(ELConceptDescription::roleDepth)
-        .max(Integer::compare)
-        .orElse(0);
+    return summary().roleDepth;
   }
 
   public final void restrictTo(final int roleDepth) {
@@ -454,7 +964,7 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
     else if (roleDepth == 0)
       existentialRestrictions.clear();
     else
-      existentialRestrictions.values().parallelStream().forEach(filler -> filler.restrictTo(roleDepth - 1));
+      ELExecutionContext.streamOf(existentialRestrictions.values()).forEach(filler -> filler.restrictTo(roleDepth - 1));
   }
 
   public final Collection<ELConceptDescription> topLevelConjuncts() {
@@ -469,98 +979,124 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
   }
 
   public final int size() {
-    return Math
-        .max(
-            1,
-            2 * conceptNames.size() + existentialRestrictions.size() - 1
-                + existentialRestrictions
-                    .entries()
-                    .parallelStream()
-                    .map(Entry::getValue)
-                    .map((ELConceptDescription c) -> 1 + c.size())
-                    .reduce(0, Integer::sum));
+    return summary().size;
   }
 
   public final int size2() {
-    return conceptNames.size() + existentialRestrictions
-        .entries()
-        .parallelStream()
-        .map(Entry::getValue)
-        .map(C -> 1 + C.size2())
-        .reduce(0, Integer::sum);
+    return summary().size2;
   }
 
   public final long rank5() {
-    if (isBot())
-      return Long.MAX_VALUE;
-    long rank = 0;
-    ELConceptDescription C = this.clone().reduce();
-    while (!C.isTop()) {
-      C = C.oneUpperNeighbor();
-      rank++;
-    }
-    return rank;
+    final int rank = rank();
+    return rank == Integer.MAX_VALUE ? Long.MAX_VALUE : rank;
   }
 
+  /**
+   * @return the rank of this concept description if it does not exceed the given bound, and Long.MAX_VALUE otherwise;
+   *         the computation stops as soon as the bound is exceeded
+   */
   public final long boundedRank(long maxValue) {
-    if (isBot())
-      return Long.MAX_VALUE;
-    long rank = 0;
-    ELConceptDescription C = this.clone().reduce();
-    while (!C.isTop()) {
-      if (rank >= maxValue)
+    final int rank = this.rank;
+    if (rank >= 0)
+      return rank == Integer.MAX_VALUE || rank > maxValue ? Long.MAX_VALUE : rank;
+    return ELExecutionContext.enter(() -> {
+      if (isBot())
         return Long.MAX_VALUE;
-      C = C.oneUpperNeighbor();
-      rank++;
-    }
-    return rank;
+      final ELConceptDescription C = getReducedForm();
+      long bound = maxValue - C.conceptNames.size();
+      for (IRI r : C.existentialRestrictions.keySet()) {
+        if (bound < 0)
+          return Long.MAX_VALUE;
+        final int k = rank(C.existentialRestrictions.get(r), bound);
+        if (k < 0)
+          return Long.MAX_VALUE;
+        bound -= k;
+      }
+      if (bound < 0)
+        return Long.MAX_VALUE;
+      observe();
+      this.rank = (int) (maxValue - bound);
+      return maxValue - bound;
+    });
   }
 
+  /**
+   * @return the rank of this concept description, i.e., the length of the chains of upper neighbors from its reduced
+   *         form to top, which is cached until this concept description is modified
+   */
   public final int rank() {
-    if (isBot())
-      return Integer.MAX_VALUE;
-    return this.clone().reduce().unreducedRank();
+    final int rank = this.rank;
+    if (rank >= 0)
+      return rank;
+    return ELExecutionContext.enter(() -> {
+      final int r = isBot() ? Integer.MAX_VALUE : getReducedForm().rankOfReduced();
+      observe();
+      this.rank = r;
+      return r;
+    });
   }
 
-  public final int unreducedRank() {
-    if (this.isTop())
-      return 0;
-    else if (this.isBot())
+  /**
+   * The rank is the sum of the number of concept names and of the ranks of the existential restrictions for each role
+   * name, since upper neighbors only modify the existential restrictions of a single role name at a time.
+   * 
+   * @return the rank of this concept description, which must be reduced
+   */
+  private final int rankOfReduced() {
+    if (this.isBot())
       return Integer.MAX_VALUE;
-    else
-      return 1 + this.oneUpperNeighbor().unreducedRank();
+    int rank = this.conceptNames.size();
+    if (this.conceptNames.contains(df.getOWLThing().getIRI()))
+      rank--;
+    for (IRI r : this.existentialRestrictions.keySet())
+      rank += rank(this.existentialRestrictions.get(r), Integer.MAX_VALUE);
+    return rank;
   }
 
-  private final ELConceptDescription oneUpperNeighbor() {
-    if (!this.conceptNames.isEmpty()) {
-      final ELConceptDescription upperNeighbor = this.clone();
-      final Iterator<IRI> it = upperNeighbor.conceptNames.iterator();
-      it.next();
-      it.remove();
-      return upperNeighbor;
-    } else if (!this.existentialRestrictions.isEmpty()) {
-      final ELConceptDescription upperNeighbor = this.clone();
-      final Iterator<Entry<IRI, ELConceptDescription>> it = upperNeighbor.existentialRestrictions.entries().iterator();
-      final Entry<IRI, ELConceptDescription> ER = it.next();
+  /**
+   * The ranks of conjunctions of existential restrictions for a single role name. The keys are the interned fillers
+   * of these existential restrictions, and hence subsequent modifications of the queried concept descriptions do not
+   * affect the cached ranks.
+   */
+  private static final Cache<ImmutableSet<ImmutableELConceptDescription>, Integer> rankCache =
+      CacheBuilder.newBuilder().maximumSize(1 << 16).build();
+
+  /**
+   * Iteratively replaces one of the fillers by its upper neighbors that are not redundant, until no filler is left.
+   * The ranks of all intermediate conjunctions are cached.
+   * 
+   * @param fillers
+   *          the pairwise incomparable, reduced fillers of existential restrictions for the same role name
+   * @param bound
+   *          the computation is aborted as soon as the rank is known to exceed this bound
+   * @return the rank of the conjunction of these existential restrictions, or -1 if it exceeds the given bound
+   */
+  private static final int rank(final Collection<ELConceptDescription> fillers, final long bound) {
+    final Map<ImmutableELConceptDescription, ELConceptDescription> Ds = new LinkedHashMap<>();
+    for (ELConceptDescription D : fillers)
+      Ds.put(D.intern(), D);
+    final List<ImmutableSet<ImmutableELConceptDescription>> chain = new ArrayList<>();
+    int rank = 0;
+    while (!Ds.isEmpty()) {
+      final ImmutableSet<ImmutableELConceptDescription> key = ImmutableSet.copyOf(Ds.keySet());
+      final Integer cachedRank = rankCache.getIfPresent(key);
+      if (cachedRank != null) {
+        rank = cachedRank;
+        break;
+      }
+      if (chain.size() >= bound)
+        return -1;
+      chain.add(key);
+      final Iterator<ELConceptDescription> it = Ds.values().iterator();
+      final ELConceptDescription D = it.next();
       it.remove();
-      ER
-          .getValue()
-          .upperNeighborsReduced()
-          .parallelStream()
-          .filter(
-              uER -> upperNeighbor.existentialRestrictions
-                  .entries()
-                  .parallelStream()
-                  .filter(otherER -> !otherER.equals(ER))
-                  .filter(otherER -> ER.getKey().equals(otherER.getKey()))
-                  .map(Entry::getValue)
-                  .noneMatch(uER::subsumes))
-          .map(uER -> Pair.of(ER.getKey(), uER))
-          .sequential()
-          .forEach(p -> upperNeighbor.existentialRestrictions.put(p.first(), p.second()));
-      return upperNeighbor;
-    } else
-      return null;
+      for (ELConceptDescription U : D.upperNeighborsReduced())
+        if (Ds.values().stream().noneMatch(U::subsumes))
+          Ds.put(U.intern(), U);
+    }
+    for (int i = chain.size() - 1; i >= 0; i--)
+      rankCache.put(chain.get(i), ++rank);
+    return rank > bound ? -1 : rank;
   }
 
 //  public final int rank2() {
@@ -620,37 +1156,74 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
 //    }
 //  }
 
+  /**
+   * The decomposition of the rank by role names is also used by {@link #rank()}, i.e., both methods coincide and share
+   * the cached ranks.
+   */
   public final int rank2() {
-    return this.clone().reduce().unreducedRank2();
+    return rank();
   }
 
+  /**
+   * Formerly computed the rank without reducing first, by walking a chain of upper neighbors. For a concept description
+   * that is not reduced, the length of that chain depended on the order in which the chain was chosen, i.e., the result
+   * was only meaningful for reduced concept descriptions. The rank is now computed as the number of concept names plus,
+   * for each role name, the rank of the conjunction of its existential restrictions, which requires reduced input as
+   * well.
+   * 
+   * @return the rank of this concept description, provided that it is reduced
+   * @deprecated use {@link #rank()}, which reduces first and caches the result
+   */
+  @Deprecated
+  public final int unreducedRank() {
+    return rankOfReduced();
+  }
+
+  /**
+   * @deprecated use {@link #rank()}, cf. {@link #unreducedRank()}
+   */
+  @Deprecated
   public final int unreducedRank2() {
-    return this.getConceptNames().size() + this.getExistentialRestrictions().keySet().parallelStream().map(r -> {
-      final ELConceptDescription rDs = new ELConceptDescription();
-      rDs.getExistentialRestrictions().putAll(r, this.getExistentialRestrictions().get(r));
-      return rDs;
-    }).mapToInt(ELConceptDescription::unreducedRank).sum();
+    return rankOfReduced();
   }
 
   public final int rank3() {
+    return ELExecutionContext.enter(() -> {
 //    final Set<ELConceptDescription> Us = representatives(upperNeighborsReduced(), (X, Y) -> X.isEquivalentTo(Y));
-    final Set<ELConceptDescription> Us = upperNeighborsReduced();
+      final Set<ELConceptDescription> Us = upperNeighborsReduced();
 //    if (Us.parallelStream().anyMatch(X -> Us.parallelStream().filter(Y -> X != Y).anyMatch(X::isEquivalentTo)))
 //      throw new RuntimeException();
-    if (Us.isEmpty())
-      return 0;
-    else if (Us.size() == 1)
-      return 1 + Us.iterator().next().clone().reduce().rank3();
-    else
-      return Us.size() + ELLeastCommonSubsumer.lcs(Us).clone().reduce().rank3();
+      if (Us.isEmpty())
+        return 0;
+      else if (Us.size() == 1)
+        return 1 + Us.iterator().next().getReducedForm().rank3();
+      else
+        return Us.size() + ELLeastCommonSubsumer.lcs(Us).getReducedForm().rank3();
+    });
   }
 
+  /**
+   * Computes the rank by the inclusion-exclusion principle over the upper neighbors. The result is cached separately
+   * from the one of {@link #rank()}, such that both computations can be compared with each other.
+   */
   public final int rank4() {
-    return this.clone().reduce().unreducedRank4();
+    final int rank4 = this.rank4;
+    if (rank4 >= 0)
+      return rank4;
+    return ELExecutionContext.enter(() -> {
+      final int r = isBot() ? Integer.MAX_VALUE : getReducedForm().unreducedRank4();
+      observe();
+      this.rank4 = r;
+      return r;
+    });
   }
 
   public final int unreducedRank4() {
-    return this.getConceptNames().size() + this
+    if (this.isBot())
+      return Integer.MAX_VALUE;
+    final int conceptNames =
+        this.conceptNames.size() - (this.conceptNames.contains(df.getOWLThing().getIRI()) ? 1 : 0);
+    return conceptNames + this
         .getExistentialRestrictions()
         .keySet()
         .parallelStream()
@@ -659,13 +1232,26 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
         .sum();
   }
 
+  /**
+   * The ranks of conjunctions of existential restrictions for a single role name as computed by
+   * {@link #recurseUnreducedRank4(Collection)}, keyed like {@link #rankCache}.
+   */
+  private static final Cache<ImmutableSet<ImmutableELConceptDescription>, Integer> rank4Cache =
+      CacheBuilder.newBuilder().maximumSize(1 << 16).build();
+
   private static final int recurseUnreducedRank4(final Collection<ELConceptDescription> Ds) {
     if (Ds.isEmpty())
       return 0;
-    else if (Ds.size() == 1)
-      return 1 + recurseUnreducedRank4(Ds.iterator().next().upperNeighborsReduced());
+    final ImmutableSet<ImmutableELConceptDescription> key =
+        Ds.stream().map(ELConceptDescription::intern).collect(ImmutableSet.toImmutableSet());
+    final Integer cachedRank = rank4Cache.getIfPresent(key);
+    if (cachedRank != null)
+      return cachedRank;
+    final int rank;
+    if (Ds.size() == 1)
+      rank = 1 + recurseUnreducedRank4(Ds.iterator().next().upperNeighborsReduced());
     else
-      return IntStream
+      rank = IntStream
           .range(1, Ds.size() + 1)
           .boxed()
           .map(
@@ -679,88 +1265,172 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
                   .map(Collections::singleton)
                   .collect(Collectors.summingInt(ELConceptDescription::recurseUnreducedRank4))))
           .collect(Collectors.summingInt(Integer::valueOf));
+    rank4Cache.put(key, rank);
+    return rank;
   }
 
   public final int distanceTo(final ELConceptDescription other) {
-    final List<Integer> x = Stream
-        .<Supplier<Integer>> of(
-            () -> ELConceptDescription.conjunction(this, other).rank(),
-            () -> ELLeastCommonSubsumer.lcs(this, other).rank())
-        .parallel()
-        .map(Supplier::get)
-        .collect(Collectors.toList());
-    return x.get(0) - x.get(1);
+    return ELExecutionContext.enter(() -> {
+      // both concept descriptions are only read, since the lcs would otherwise reduce them in place while the
+      // conjunction is built from their existential restrictions
+      final ELConceptDescription C = this.getReducedForm();
+      final ELConceptDescription D = other.getReducedForm();
+      final List<Integer> x = Stream
+          .<Supplier<Integer>> of(
+              () -> ELConceptDescription.conjunction(C, D).rank(),
+              () -> ELLeastCommonSubsumer.lcs(C, D).rank())
+          .parallel()
+          .map(Supplier::get)
+          .collect(Collectors.toList());
+      return x.get(0) - x.get(1);
+    });
   }
 
   public final int distanceTo2(final ELConceptDescription other) {
-    final ELConceptDescription lcs = ELLeastCommonSubsumer.lcs(this, other);
-    int distance = -1;
-    for (ELConceptDescription C = ELConceptDescription.conjunction(this, other).reduce(); C != null; C =
-        C.oneUpperNeighborBelow(lcs))
-      distance++;
-    return distance;
+    return ELExecutionContext.enter(() -> {
+      final ELConceptDescription lcs = ELLeastCommonSubsumer.lcs(this, other);
+      int distance = -1;
+      for (ELConceptDescription C = ELConceptDescription.conjunction(this, other).reduce(); C != null; C =
+          C.oneUpperNeighborBelow(lcs))
+        distance++;
+      return distance;
+    });
   }
 
   private final ELConceptDescription oneUpperNeighborBelow(final ELConceptDescription other) {
-    return Stream.concat(this.conceptNames.parallelStream().map(A -> {
-      final ELConceptDescription upperNeighbor = this.clone();
-      upperNeighbor.conceptNames.remove(A);
-      return upperNeighbor;
-    }), this.existentialRestrictions.entries().parallelStream().map(ER -> {
-      final ELConceptDescription upperNeighbor = this.clone();
-      upperNeighbor.existentialRestrictions.remove(ER.getKey(), ER.getValue());
-      ER
-          .getValue()
-          .upperNeighborsReduced()
-          .parallelStream()
-          .filter(
-              uER -> upperNeighbor.existentialRestrictions
-                  .entries()
-                  .parallelStream()
-                  .filter(otherER -> !otherER.equals(ER))
-                  .filter(otherER -> ER.getKey().equals(otherER.getKey()))
-                  .map(Entry::getValue)
-                  .noneMatch(uER::subsumes))
-          .map(uER -> Pair.of(ER.getKey(), uER))
-          .sequential()
-          .forEach(p -> upperNeighbor.existentialRestrictions.put(p.first(), p.second()));
-      return upperNeighbor;
-    })).filter(other::subsumes).findAny().orElse(null);
+    // this concept description is reduced, and so are its upper neighbors
+    return Stream
+        .concat(
+            this.conceptNames.parallelStream().map(A -> this.clone().removeConceptName(A)),
+            this.existentialRestrictions
+                .entries()
+                .parallelStream()
+                .map(
+                    ER -> this
+                        .clone()
+                        .replaceExistentialRestriction(
+                            ER.getKey(),
+                            ER.getValue(),
+                            ER.getValue().upperNeighborsReduced())))
+        .filter(other::subsumes)
+        .findAny()
+        .orElse(null);
   }
 
   public final Set<ELConceptDescription> neighborhood(final int radius, final Signature sigma) {
-    if (radius < 0)
-      throw new IllegalArgumentException();
-    final Set<ELConceptDescription> next = Sets.newHashSet(this);
-    final Set<ELConceptDescription> neighborhood = Sets.newHashSet(this);
-    for (int k = 0; k < radius; k++) {
-      final Set<ELConceptDescription> news = Stream
-          .concat(
-              next.parallelStream().flatMap(C -> C.upperNeighborsReduced().parallelStream()),
-              next.parallelStream().flatMap(C -> C.lowerNeighborsReduced1(sigma).parallelStream()))
-          .collect(Collectors.toSet());
-      next.clear();
-      next.addAll(news);
-      next.removeAll(neighborhood);
-      neighborhood.addAll(news);
-    }
-    return neighborhood;
+    return ELExecutionContext.enter(() -> {
+      if (radius < 0)
+        throw new IllegalArgumentException();
+      final Set<ELConceptDescription> next = Sets.newHashSet(this);
+      final Set<ELConceptDescription> neighborhood = Sets.newHashSet(this);
+      for (int k = 0; k < radius; k++) {
+        // the neighbors are enumerated lazily, and already known ones are dropped before they are collected
+        final Set<ELConceptDescription> news = next
+            .parallelStream()
+            .flatMap(C -> Stream.concat(C.upperNeighborsReducedStream(), C.lowerNeighborsReduced1Stream(sigma)))
+            .filter(X -> !neighborhood.contains(X))
+            .collect(Collectors.toSet());
+        next.clear();
+        next.addAll(news);
+        neighborhood.addAll(news);
+      }
+      return neighborhood;
+    });
+  }
+
+  /**
+   * @return a lazy, sequential stream of the elements of the given iterator, in which an element is dropped if an
+   *         element with the same key has been encountered before. Only the keys are retained, which are hash-consed
+   *         and thus share their common sub-descriptions. Note that the retained keys are not bounded, i.e., the memory
+   *         consumption grows linearly with the number of distinct elements pulled so far, which is at most the number
+   *         of neighbors that the corresponding Set-returning method would construct at once. Consumers that pull only
+   *         a few elements thus need little memory, but exhausting the stream needs as much as the Set.
+   */
+  private static final Stream<ELConceptDescription> distinct(
+      final Iterator<ELConceptDescription> iterator,
+      final Function<ELConceptDescription, ImmutableELConceptDescription> key) {
+    final Set<ImmutableELConceptDescription> seen = new HashSet<>();
+    return Streams.stream(Iterators.filter(iterator, C -> seen.add(key.apply(C))));
+  }
+
+  /**
+   * @return a lazy iterator over the cartesian product of the given iterators in lexicographic order, i.e., the last
+   *         component varies fastest. An element of an iterator is only pulled when the first combination that contains
+   *         it is requested, and it is retained in order to combine it with later elements of the preceding iterators.
+   */
+  private static final <E> Iterator<List<E>> cartesianProduct(final List<Iterator<E>> iterators) {
+    final int n = iterators.size();
+    final List<List<E>> pulled = new ArrayList<>(n);
+    for (int i = 0; i < n; i++)
+      pulled.add(new ArrayList<>());
+    final int[] index = new int[n];
+    return new AbstractIterator<List<E>>() {
+
+      private boolean first = true;
+
+      @Override
+      protected List<E> computeNext() {
+        if (first) {
+          first = false;
+          for (int i = 0; i < n; i++)
+            if (!pull(i, 0))
+              return endOfData();
+        } else {
+          int i = n - 1;
+          while (i >= 0 && !pull(i, index[i] + 1))
+            index[i--] = 0;
+          if (i < 0)
+            return endOfData();
+          index[i]++;
+        }
+        final List<E> combination = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+          combination.add(pulled.get(i).get(index[i]));
+        return combination;
+      }
+
+      private boolean pull(final int i, final int k) {
+        final List<E> elements = pulled.get(i);
+        while (elements.size() <= k && iterators.get(i).hasNext())
+          elements.add(iterators.get(i).next());
+        return elements.size() > k;
+      }
+
+    };
+  }
+
+  private static final ImmutableELConceptDescription reducedKey(final ELConceptDescription concept) {
+    return concept.getReducedForm().intern();
+  }
+
+  private final ELConceptDescription withoutConceptName(final IRI conceptName) {
+    return this.clone().removeConceptName(conceptName);
+  }
+
+  private final ELConceptDescription withConceptName(final IRI conceptName) {
+    return this.clone().addConceptName(conceptName);
+  }
+
+  private final ELConceptDescription withExistentialRestriction(final IRI roleName, final ELConceptDescription filler) {
+    return this.clone().addExistentialRestriction(roleName, filler);
   }
 
   public final Set<ELConceptDescription> upperNeighbors() {
-    final ELConceptDescription reducedForm = this.clone().reduce();
-    return Stream.concat(reducedForm.conceptNames.parallelStream().map(A -> {
-      final ELConceptDescription upperNeighbor = reducedForm.clone();
-      upperNeighbor.conceptNames.remove(A);
-      return upperNeighbor;
-    }), reducedForm.existentialRestrictions.entries().parallelStream().map(ER -> {
-      final ELConceptDescription upperNeighbor = reducedForm.clone();
-      upperNeighbor.existentialRestrictions.remove(ER.getKey(), ER.getValue());
-      ER.getValue().upperNeighbors().forEach(uER -> upperNeighbor.existentialRestrictions.put(ER.getKey(), uER));
-      return upperNeighbor;
-    })
+    return ELExecutionContext.enter(() -> {
+      final ELConceptDescription reducedForm = getReducedForm();
+      return Stream.concat(reducedForm.conceptNames.parallelStream().map(A -> {
+        final ELConceptDescription upperNeighbor = reducedForm.clone();
+        upperNeighbor.conceptNames.remove(A);
+        return upperNeighbor;
+      }), reducedForm.existentialRestrictions.entries().parallelStream().map(ER -> {
+        final ELConceptDescription upperNeighbor = reducedForm.clone();
+        upperNeighbor.existentialRestrictions.remove(ER.getKey(), ER.getValue());
+        ER.getValue().upperNeighbors().forEach(uER -> upperNeighbor.existentialRestrictions.put(ER.getKey(), uER));
+        return upperNeighbor;
+      })
 //        .filter(other -> !this.subsumes(other)))
-    ).collect(Collectors.toSet());
+      ).collect(Collectors.toSet());
+    });
   }
 
   /**
@@ -769,371 +1439,468 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
    * computed.
    */
   public final Set<ELConceptDescription> upperNNeighbors(int n) {
-    final ELConceptDescription reducedForm = this.clone().reduce();
-    final Stream<ELConceptDescription> upperNNeighborsFromConceptNames =
-        reducedForm.conceptNames.parallelStream().map(A -> {
-          final ELConceptDescription upperNeighbor = reducedForm.clone();
-          upperNeighbor.conceptNames.remove(A);
-          return upperNeighbor;
-        });
-    final Stream<ELConceptDescription> _upperNNeighborsFromExistentialRestrictions =
-        reducedForm.existentialRestrictions.entries().parallelStream().flatMap(ER -> {
-          final Set<ELConceptDescription> all_uERs = ER.getValue().upperNNeighbors(n);
-          return Sets.combinations(all_uERs, Math.min(n, all_uERs.size())).stream().parallel().map(uERs -> {
+    return ELExecutionContext.enter(() -> {
+      final ELConceptDescription reducedForm = getReducedForm();
+      final Stream<ELConceptDescription> upperNNeighborsFromConceptNames =
+          reducedForm.conceptNames.parallelStream().map(A -> {
             final ELConceptDescription upperNeighbor = reducedForm.clone();
-            upperNeighbor.existentialRestrictions.remove(ER.getKey(), ER.getValue());
-            uERs.forEach(uER -> upperNeighbor.existentialRestrictions.put(ER.getKey(), uER));
+            upperNeighbor.conceptNames.remove(A);
             return upperNeighbor;
           });
-        });
-    final Stream<ELConceptDescription> upperNNeighborsFromExistentialRestrictions;
+      final Stream<ELConceptDescription> _upperNNeighborsFromExistentialRestrictions =
+          reducedForm.existentialRestrictions.entries().parallelStream().flatMap(ER -> {
+            final Set<ELConceptDescription> all_uERs = ER.getValue().upperNNeighbors(n);
+            return Sets.combinations(all_uERs, Math.min(n, all_uERs.size())).stream().parallel().map(uERs -> {
+              final ELConceptDescription upperNeighbor = reducedForm.clone();
+              upperNeighbor.existentialRestrictions.remove(ER.getKey(), ER.getValue());
+              uERs.forEach(uER -> upperNeighbor.existentialRestrictions.put(ER.getKey(), uER));
+              return upperNeighbor;
+            });
+          });
+      final Stream<ELConceptDescription> upperNNeighborsFromExistentialRestrictions;
+      if (n < Integer.MAX_VALUE)
+        upperNNeighborsFromExistentialRestrictions =
+            _upperNNeighborsFromExistentialRestrictions.filter(other -> !ELConceptDescription.this.subsumes(other));
+      else
+        upperNNeighborsFromExistentialRestrictions = _upperNNeighborsFromExistentialRestrictions;
+      return Stream
+          .concat(upperNNeighborsFromConceptNames, upperNNeighborsFromExistentialRestrictions)
+          .collect(Collectors.toSet());
+    });
+  }
+
+  /**
+   * Lazily enumerates the upper n-neighbors of this concept description, cf. {@link #upperNNeighbors(int)}. The
+   * neighbors are only computed when requested by the consumer, and duplicates are dropped on the fly.
+   */
+  public final Stream<ELConceptDescription> upperNNeighborsStream(final int n) {
+    final ELConceptDescription reducedForm = getReducedForm();
+    final Iterator<ELConceptDescription> upperNNeighborsFromConceptNames =
+        Iterators.transform(new ArrayList<>(reducedForm.conceptNames).iterator(), reducedForm::withoutConceptName);
+    final Iterator<ELConceptDescription> _upperNNeighborsFromExistentialRestrictions = Iterators
+        .concat(Iterators.transform(new ArrayList<>(reducedForm.existentialRestrictions.entries()).iterator(), ER -> {
+          final Set<ELConceptDescription> all_uERs = ER.getValue().upperNNeighbors(n);
+          return Iterators
+              .transform(Sets.combinations(all_uERs, Math.min(n, all_uERs.size())).iterator(), uERs -> {
+                final ELConceptDescription upperNeighbor = reducedForm.clone();
+                upperNeighbor.existentialRestrictions.remove(ER.getKey(), ER.getValue());
+                uERs.forEach(uER -> upperNeighbor.existentialRestrictions.put(ER.getKey(), uER));
+                return upperNeighbor;
+              });
+        }));
+    final Iterator<ELConceptDescription> upperNNeighborsFromExistentialRestrictions;
     if (n < Integer.MAX_VALUE)
-      upperNNeighborsFromExistentialRestrictions =
-          _upperNNeighborsFromExistentialRestrictions.filter(other -> !ELConceptDescription.this.subsumes(other));
+      upperNNeighborsFromExistentialRestrictions = Iterators
+          .filter(_upperNNeighborsFromExistentialRestrictions, other -> !ELConceptDescription.this.subsumes(other));
     else
       upperNNeighborsFromExistentialRestrictions = _upperNNeighborsFromExistentialRestrictions;
-    return Stream
-        .concat(upperNNeighborsFromConceptNames, upperNNeighborsFromExistentialRestrictions)
-        .collect(Collectors.toSet());
+    return distinct(
+        Iterators.concat(upperNNeighborsFromConceptNames, upperNNeighborsFromExistentialRestrictions),
+        ELConceptDescription::intern);
   }
 
   public final Set<ELConceptDescription> upperNeighborsReduced() {
-    final ELConceptDescription reducedForm = this.clone().reduce();
-    return Collections3.representatives(Stream.concat(reducedForm.conceptNames.parallelStream().map(A -> {
-      final ELConceptDescription upperNeighbor = reducedForm.clone();
-      upperNeighbor.conceptNames.remove(A);
-      return upperNeighbor;
-    }), reducedForm.existentialRestrictions.entries().parallelStream().map(ER -> {
-      final ELConceptDescription upperNeighbor = reducedForm.clone();
-      upperNeighbor.existentialRestrictions.remove(ER.getKey(), ER.getValue());
-      ER
-          .getValue()
-          .upperNeighborsReduced()
-          .parallelStream()
-          .filter(
-              uER -> reducedForm.existentialRestrictions
-                  .entries()
-                  .parallelStream()
-                  .filter(otherER -> !otherER.equals(ER))
-                  .filter(otherER -> ER.getKey().equals(otherER.getKey()))
-                  .map(Entry::getValue)
-                  .noneMatch(uER::subsumes))
-          .sequential()
-          .forEach(uER -> upperNeighbor.existentialRestrictions.put(ER.getKey(), uER));
-      return upperNeighbor;
-    })
-    // .filter(other -> !this.subsumes(other)))
-    ).collect(Collectors.toSet()), (X, Y) -> X.isEquivalentTo(Y));
+    return ELExecutionContext.enter(() -> {
+      final ELConceptDescription reducedForm = getReducedForm();
+      return Collections3.representatives(Stream.concat(reducedForm.conceptNames.parallelStream().map(A -> {
+        return reducedForm.clone().removeConceptName(A);
+      }), reducedForm.existentialRestrictions.entries().parallelStream().map(ER -> {
+        return reducedForm
+            .clone()
+            .replaceExistentialRestriction(ER.getKey(), ER.getValue(), ER.getValue().upperNeighborsReduced());
+      })
+      // .filter(other -> !this.subsumes(other)))
+      ).collect(Collectors.toSet()), ELConceptDescription::fingerprint, ELConceptDescription::isEquivalentTo);
+    });
+  }
+
+  /**
+   * Lazily enumerates the upper neighbors of this concept description, cf. {@link #upperNeighborsReduced()}. Each
+   * neighbor is only computed when requested by the consumer, and equivalent neighbors are dropped on the fly.
+   */
+  public final Stream<ELConceptDescription> upperNeighborsReducedStream() {
+    final ELConceptDescription reducedForm = getReducedForm();
+    return distinct(
+        Iterators
+            .concat(
+                Iterators
+                    .transform(new ArrayList<>(reducedForm.conceptNames).iterator(), reducedForm::withoutConceptName),
+                Iterators
+                    .transform(
+                        new ArrayList<>(reducedForm.existentialRestrictions.entries()).iterator(),
+                        ER -> reducedForm
+                            .clone()
+                            .replaceExistentialRestriction(
+                                ER.getKey(),
+                                ER.getValue(),
+                                ER.getValue().upperNeighborsReduced()))),
+        ELConceptDescription::reducedKey);
   }
 
   public final Set<ELConceptDescription> upperNNeighborsReduced(int n) {
-    final ELConceptDescription reducedForm = this.clone().reduce();
-    final Stream<ELConceptDescription> upperNNeighborsFromConceptNames =
-        reducedForm.conceptNames.parallelStream().map(A -> {
-          final ELConceptDescription upperNeighbor = reducedForm.clone();
-          upperNeighbor.conceptNames.remove(A);
-          return upperNeighbor;
-        });
-    final Stream<ELConceptDescription> _upperNNeighborsFromExistentialRestrictions =
-        reducedForm.existentialRestrictions.entries().parallelStream().flatMap(ER -> {
-          final Set<ELConceptDescription> all_uERs = ER.getValue().upperNNeighborsReduced(n);
-          return Sets.combinations(all_uERs, Math.min(n, all_uERs.size())).stream().parallel().map(uERs -> {
+    return ELExecutionContext.enter(() -> {
+      final ELConceptDescription reducedForm = getReducedForm();
+      final Stream<ELConceptDescription> upperNNeighborsFromConceptNames =
+          reducedForm.conceptNames.parallelStream().map(A -> {
             final ELConceptDescription upperNeighbor = reducedForm.clone();
-            upperNeighbor.existentialRestrictions.remove(ER.getKey(), ER.getValue());
-            uERs
-                .parallelStream()
-                .filter(
-                    uER -> reducedForm.existentialRestrictions
-                        .entries()
-                        .parallelStream()
-                        .filter(otherER -> !otherER.equals(ER))
-                        .filter(otherER -> ER.getKey().equals(otherER.getKey()))
-                        .map(Entry::getValue)
-                        .noneMatch(uER::subsumes))
-                .sequential()
-                .forEach(uER -> upperNeighbor.existentialRestrictions.put(ER.getKey(), uER));
+            upperNeighbor.conceptNames.remove(A);
             return upperNeighbor;
           });
-        });
-    final Stream<ELConceptDescription> upperNNeighborsFromExistentialRestrictions;
-    if (n < Integer.MAX_VALUE)
-      upperNNeighborsFromExistentialRestrictions =
-          _upperNNeighborsFromExistentialRestrictions.filter(other -> !ELConceptDescription.this.subsumes(other));
-    else
-      upperNNeighborsFromExistentialRestrictions = _upperNNeighborsFromExistentialRestrictions;
-    return Collections3
-        .representatives(
-            Stream
-                .concat(upperNNeighborsFromConceptNames, upperNNeighborsFromExistentialRestrictions)
-                .collect(Collectors.toSet()),
-            ELConceptDescription::isEquivalentTo);
+      final Stream<ELConceptDescription> _upperNNeighborsFromExistentialRestrictions =
+          reducedForm.existentialRestrictions.entries().parallelStream().flatMap(ER -> {
+            final Set<ELConceptDescription> all_uERs = ER.getValue().upperNNeighborsReduced(n);
+            return Sets.combinations(all_uERs, Math.min(n, all_uERs.size())).stream().parallel().map(uERs -> {
+              final ELConceptDescription upperNeighbor = reducedForm.clone();
+              upperNeighbor.existentialRestrictions.remove(ER.getKey(), ER.getValue());
+              uERs
+                  .parallelStream()
+                  .filter(
+                      uER -> reducedForm.existentialRestrictions
+                          .entries()
+                          .parallelStream()
+                          .filter(otherER -> !otherER.equals(ER))
+                          .filter(otherER -> ER.getKey().equals(otherER.getKey()))
+                          .map(Entry::getValue)
+                          .noneMatch(uER::subsumes))
+                  .sequential()
+                  .forEach(uER -> upperNeighbor.existentialRestrictions.put(ER.getKey(), uER));
+              return upperNeighbor;
+            });
+          });
+      final Stream<ELConceptDescription> upperNNeighborsFromExistentialRestrictions;
+      if (n < Integer.MAX_VALUE)
+        upperNNeighborsFromExistentialRestrictions =
+            _upperNNeighborsFromExistentialRestrictions.filter(other -> !ELConceptDescription.this.subsumes(other));
+      else
+        upperNNeighborsFromExistentialRestrictions = _upperNNeighborsFromExistentialRestrictions;
+      return Collections3
+          .representatives(
+              Stream
+                  .concat(upperNNeighborsFromConceptNames, upperNNeighborsFromExistentialRestrictions)
+                  .collect(Collectors.toSet()),
+              ELConceptDescription::fingerprint,
+              ELConceptDescription::isEquivalentTo);
+    });
   }
 
   public final Set<ELConceptDescription> lowerNeighbors(final Signature sigma) {
-    if (isBot())
-      return Collections.emptySet();
-    final ELConceptDescription C = ELConceptDescription.this.clone().reduce();
-    final Set<ELConceptDescription> lowerNeighbors = Sets.newConcurrentHashSet();
-    sigma.getConceptNames().parallelStream().filter(A -> !C.conceptNames.contains(A)).map(A -> {
-      final ELConceptDescription lowerNeighbor = C.clone();
-      lowerNeighbor.conceptNames.add(A);
-      return lowerNeighbor;
-    }).forEach(lowerNeighbors::add);
-    sigma.getRoleNames().parallelStream().forEach(r -> {
-      final Set<ELConceptDescription> filter = C.existentialRestrictions
-          .entries()
+    return ELExecutionContext.enter(() -> {
+      if (isBot())
+        return Collections.emptySet();
+      final ELConceptDescription C = getReducedForm();
+      final Set<ELConceptDescription> lowerNeighbors = Sets.newConcurrentHashSet();
+      sigma
+          .getConceptNames()
           .parallelStream()
-          .filter(existentialRestriction -> existentialRestriction.getKey().equals(r))
-          .map(Entry::getValue)
-          .collect(Collectors.toSet());
+          .filter(A -> !C.conceptNames.contains(A))
+          .map(C::withConceptName)
+          .forEach(lowerNeighbors::add);
+      sigma.getRoleNames().parallelStream().forEach(r -> {
+        final Set<ELConceptDescription> filter = C.existentialRestrictions
+            .entries()
+            .parallelStream()
+            .filter(existentialRestriction -> existentialRestriction.getKey().equals(r))
+            .map(Entry::getValue)
+            .collect(Collectors.toSet());
 //      if (filter.isEmpty()) {
 //        final ELConceptDescription lowerNeighbor = C.clone();
 //        lowerNeighbor.existentialRestrictions.put(r, ELConceptDescription.top());
 //        lowerNeighbors.add(lowerNeighbor);
 //      } else {
-      Sets
-          .powerSet(filter)
-          .parallelStream()
-          // .filter(FF -> !FF.isEmpty())
-          .forEach(FF -> {
-            final Map<ELConceptDescription, Set<ELConceptDescription>> choices = new ConcurrentHashMap<>();
-            FF.parallelStream().forEach(F -> {
-              final Set<ELConceptDescription> choicesForF = Sets.newConcurrentHashSet();
-              choices.put(F, choicesForF);
-              F.lowerNeighbors(sigma).parallelStream().forEach(L -> {
-                // final ELConceptDescription X = L.clone();
-                // X.getConceptNames().removeIf(A -> F.isSubsumedBy(ELConceptDescription.conceptName(A)));
-                // X.getExistentialRestrictions().entries().removeIf(
-                // rD -> F.isSubsumedBy(ELConceptDescription.existentialRestriction(rD)));
-                final ELConceptDescription X = L.without(F);
-                if (X.isTop()) {
-                  System.out.println("F = " + F);
-                  System.out.println("L = " + L);
-                  System.out.println("X = " + X);
-                  throw new RuntimeException();
-                }
-                if (FF.parallelStream().filter(F1 -> !F.equals(F1)).allMatch(F1 -> F1.isSubsumedBy(X)))
-                  choicesForF.add(X);
-              });
-            });
-            choices
-                .keySet()
-                .parallelStream()
-                .map(choices::get)
-                .reduce(
-                    Collections.singleton(Collections.<ELConceptDescription> emptySet()),
-                    (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
-                      final Set<ELConceptDescription> xy = Sets.newHashSet(x);
-                      xy.add(y);
-                      return xy;
-                    })).collect(Collectors.toSet()),
-                    (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
-                      final Set<ELConceptDescription> xy = Sets.newHashSet(x);
-                      xy.addAll(y);
-                      return xy;
-                    })).collect(Collectors.toSet()))
-                .parallelStream()
-                .forEach(f -> {
-                  final ELConceptDescription D = ELConceptDescription.conjunction(f);
-                  if (filter.parallelStream().filter(F0 -> !FF.contains(F0)).noneMatch(F0 -> F0.isSubsumedBy(D))) {
-                    final ELConceptDescription C_and_rD = C.clone();
-                    C_and_rD.getExistentialRestrictions().put(r, D.clone());
-                    lowerNeighbors.add(C_and_rD);
-                    // System.out.println("new lower neighbor found: C⊓∃" + r + "." + D);
+        Sets
+            .powerSet(filter)
+            .parallelStream()
+            // .filter(FF -> !FF.isEmpty())
+            .forEach(FF -> {
+              final Map<ELConceptDescription, Set<ELConceptDescription>> choices = new ConcurrentHashMap<>();
+              FF.parallelStream().forEach(F -> {
+                final Set<ELConceptDescription> choicesForF = Sets.newConcurrentHashSet();
+                choices.put(F, choicesForF);
+                F.lowerNeighbors(sigma).parallelStream().forEach(L -> {
+                  // final ELConceptDescription X = L.clone();
+                  // X.getConceptNames().removeIf(A -> F.isSubsumedBy(ELConceptDescription.conceptName(A)));
+                  // X.getExistentialRestrictions().entries().removeIf(
+                  // rD -> F.isSubsumedBy(ELConceptDescription.existentialRestriction(rD)));
+                  final ELConceptDescription X = L.without(F);
+                  if (X.isTop()) {
+                    System.out.println("F = " + F);
+                    System.out.println("L = " + L);
+                    System.out.println("X = " + X);
+                    throw new RuntimeException();
                   }
+                  if (FF.parallelStream().filter(F1 -> !F.equals(F1)).allMatch(F1 -> F1.isSubsumedBy(X)))
+                    choicesForF.add(X);
                 });
-          });
+              });
+              choices
+                  .keySet()
+                  .parallelStream()
+                  .map(choices::get)
+                  .reduce(
+                      Collections.singleton(Collections.<ELConceptDescription> emptySet()),
+                      (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
+                        final Set<ELConceptDescription> xy = Sets.newHashSet(x);
+                        xy.add(y);
+                        return xy;
+                      })).collect(Collectors.toSet()),
+                      (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
+                        final Set<ELConceptDescription> xy = Sets.newHashSet(x);
+                        xy.addAll(y);
+                        return xy;
+                      })).collect(Collectors.toSet()))
+                  .parallelStream()
+                  .forEach(f -> {
+                    final ELConceptDescription D = ELConceptDescription.conjunction(f);
+                    if (filter.parallelStream().filter(F0 -> !FF.contains(F0)).noneMatch(F0 -> F0.isSubsumedBy(D))) {
+                      lowerNeighbors.add(C.withExistentialRestriction(r, D.clone()));
+                      // System.out.println("new lower neighbor found: C⊓∃" + r + "." + D);
+                    }
+                  });
+            });
 //      }
+      });
+      return lowerNeighbors;
     });
-    return lowerNeighbors;
   }
 
-  public final Set<ELConceptDescription> lowerNeighborsA(final Signature sigma) {
+  /**
+   * Lazily enumerates the lower neighbors of this concept description w.r.t. the signature, cf.
+   * {@link #lowerNeighbors(Signature)}. The candidates for each role name and each subset of the fillers are only
+   * constructed when requested by the consumer, and so are the lower neighbors of the fillers from which they are
+   * built. Duplicates are dropped on the fly, see {@link #distinct(Iterator, Function)} for the memory consumption.
+   */
+  public final Stream<ELConceptDescription> lowerNeighborsStream(final Signature sigma) {
     if (isBot())
-      return Collections.emptySet();
-    final ELConceptDescription C = ELConceptDescription.this.clone().reduce();
-    final Set<ELConceptDescription> lowerNeighbors = Sets.newConcurrentHashSet();
-    sigma.getConceptNames().parallelStream().filter(A -> !C.conceptNames.contains(A)).map(A -> {
-      final ELConceptDescription lowerNeighbor = C.clone();
-      lowerNeighbor.conceptNames.add(A);
-      return lowerNeighbor;
-    }).forEach(lowerNeighbors::add);
-    sigma.getRoleNames().parallelStream().forEach(r -> {
-      final Set<ELConceptDescription> filter = C.existentialRestrictions
-          .entries()
-          .parallelStream()
-          .filter(existentialRestriction -> existentialRestriction.getKey().equals(r))
-          .map(Entry::getValue)
-          .collect(Collectors.toSet());
+      return Stream.empty();
+    final ELConceptDescription C = getReducedForm();
+    final Iterator<ELConceptDescription> fromConceptNames = Iterators
+        .transform(
+            Iterators.filter(new ArrayList<>(sigma.getConceptNames()).iterator(), A -> !C.conceptNames.contains(A)),
+            C::withConceptName);
+    final Iterator<ELConceptDescription> fromRoleNames = Iterators
+        .concat(
+            Iterators.transform(new ArrayList<>(sigma.getRoleNames()).iterator(), r -> lowerNeighbors(sigma, C, r)));
+    return distinct(Iterators.concat(fromConceptNames, fromRoleNames), ELConceptDescription::intern);
+  }
+
+  private static final Iterator<ELConceptDescription>
+      lowerNeighbors(final Signature sigma, final ELConceptDescription C, final IRI r) {
+    final Set<ELConceptDescription> filter = new HashSet<>(C.existentialRestrictions.get(r));
+    return Iterators.concat(Iterators.transform(Sets.powerSet(filter).iterator(), FF -> {
+      final List<Iterator<ELConceptDescription>> choices = new ArrayList<>();
+      for (ELConceptDescription F : FF)
+        choices
+            .add(
+                Iterators
+                    .filter(
+                        Iterators.transform(F.lowerNeighborsStream(sigma).iterator(), L -> L.without(F)),
+                        X -> FF.stream().filter(F1 -> !F.equals(F1)).allMatch(F1 -> F1.isSubsumedBy(X))));
+      return Iterators.filter(Iterators.transform(cartesianProduct(choices), f -> {
+        final ELConceptDescription D = ELConceptDescription.conjunction(f);
+        if (filter.stream().filter(F0 -> !FF.contains(F0)).noneMatch(F0 -> F0.isSubsumedBy(D)))
+          return C.withExistentialRestriction(r, D.clone());
+        return null;
+      }), Objects::nonNull);
+    }));
+  }
+
+  public final Set<ELConceptDescription> lowerNeighborsA(final Signature sigma) {
+    return ELExecutionContext.enter(() -> {
+      if (isBot())
+        return Collections.emptySet();
+      final ELConceptDescription C = getReducedForm();
+      final Set<ELConceptDescription> lowerNeighbors = Sets.newConcurrentHashSet();
+      sigma.getConceptNames().parallelStream().filter(A -> !C.conceptNames.contains(A)).map(A -> {
+        final ELConceptDescription lowerNeighbor = C.clone();
+        lowerNeighbor.conceptNames.add(A);
+        return lowerNeighbor;
+      }).forEach(lowerNeighbors::add);
+      sigma.getRoleNames().parallelStream().forEach(r -> {
+        final Set<ELConceptDescription> filter = C.existentialRestrictions
+            .entries()
+            .parallelStream()
+            .filter(existentialRestriction -> existentialRestriction.getKey().equals(r))
+            .map(Entry::getValue)
+            .collect(Collectors.toSet());
 //      if (filter.isEmpty()) {
 //        final ELConceptDescription lowerNeighbor = C.clone();
 //        lowerNeighbor.existentialRestrictions.put(r, ELConceptDescription.top());
 //        lowerNeighbors.add(lowerNeighbor);
 //      } else {
-      final Map<ELConceptDescription, Set<ELConceptDescription>> choices = new ConcurrentHashMap<>();
-      filter.parallelStream().forEach(F -> {
-        final Set<ELConceptDescription> choicesForF = Sets.newConcurrentHashSet();
-        choices.put(F, choicesForF);
-        F.lowerNeighbors(sigma).parallelStream().forEach(L -> {
-          choicesForF.add(L.without(F));
-        });
-      });
-      Sets
-          .powerSet(filter)
-          .parallelStream()
-          // .filter(FF -> !FF.isEmpty())
-          .forEach(FF -> {
-            choices
-                .entrySet()
-                .parallelStream()
-                .filter(entry -> FF.contains(entry.getKey()))
-                .map(
-                    entry -> Sets
-                        .filter(
-                            entry.getValue(),
-                            X -> FF
-                                .parallelStream()
-                                .filter(F1 -> !entry.getKey().equals(F1))
-                                .allMatch(F1 -> F1.isSubsumedBy(X))))
-                .reduce(
-                    Collections.singleton(Collections.<ELConceptDescription> emptySet()),
-                    (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
-                      final Set<ELConceptDescription> xy = Sets.newHashSet(x);
-                      xy.add(y);
-                      return xy;
-                    })).collect(Collectors.toSet()),
-                    (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
-                      final Set<ELConceptDescription> xy = Sets.newHashSet(x);
-                      xy.addAll(y);
-                      return xy;
-                    })).collect(Collectors.toSet()))
-                .parallelStream()
-                .forEach(f -> {
-                  final ELConceptDescription D = ELConceptDescription.conjunction(f);
-                  if (filter.parallelStream().filter(F0 -> !FF.contains(F0)).noneMatch(F0 -> F0.isSubsumedBy(D))) {
-                    final ELConceptDescription C_and_rD = C.clone();
-                    C_and_rD.getExistentialRestrictions().put(r, D.clone());
-                    lowerNeighbors.add(C_and_rD);
-                    // System.out.println("new lower neighbor found: C⊓∃" + r + "." + D);
-                  }
-                });
+        final Map<ELConceptDescription, Set<ELConceptDescription>> choices = new ConcurrentHashMap<>();
+        filter.parallelStream().forEach(F -> {
+          final Set<ELConceptDescription> choicesForF = Sets.newConcurrentHashSet();
+          choices.put(F, choicesForF);
+          F.lowerNeighbors(sigma).parallelStream().forEach(L -> {
+            choicesForF.add(L.without(F));
           });
+        });
+        Sets
+            .powerSet(filter)
+            .parallelStream()
+            // .filter(FF -> !FF.isEmpty())
+            .forEach(FF -> {
+              choices
+                  .entrySet()
+                  .parallelStream()
+                  .filter(entry -> FF.contains(entry.getKey()))
+                  .map(
+                      entry -> Sets
+                          .filter(
+                              entry.getValue(),
+                              X -> FF
+                                  .parallelStream()
+                                  .filter(F1 -> !entry.getKey().equals(F1))
+                                  .allMatch(F1 -> F1.isSubsumedBy(X))))
+                  .reduce(
+                      Collections.singleton(Collections.<ELConceptDescription> emptySet()),
+                      (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
+                        final Set<ELConceptDescription> xy = Sets.newHashSet(x);
+                        xy.add(y);
+                        return xy;
+                      })).collect(Collectors.toSet()),
+                      (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
+                        final Set<ELConceptDescription> xy = Sets.newHashSet(x);
+                        xy.addAll(y);
+                        return xy;
+                      })).collect(Collectors.toSet()))
+                  .parallelStream()
+                  .forEach(f -> {
+                    final ELConceptDescription D = ELConceptDescription.conjunction(f);
+                    if (filter.parallelStream().filter(F0 -> !FF.contains(F0)).noneMatch(F0 -> F0.isSubsumedBy(D))) {
+                      final ELConceptDescription C_and_rD = C.clone();
+                      C_and_rD.getExistentialRestrictions().put(r, D.clone());
+                      lowerNeighbors.add(C_and_rD);
+                      // System.out.println("new lower neighbor found: C⊓∃" + r + "." + D);
+                    }
+                  });
+            });
 //      }
+      });
+      return lowerNeighbors;
     });
-    return lowerNeighbors;
   }
 
   public final Set<ELConceptDescription> lowerNeighborsB(final Signature sigma) {
-    if (isBot())
-      return Collections.emptySet();
-    final ELConceptDescription C = ELConceptDescription.this.clone().reduce();
-    final Set<ELConceptDescription> lowerNeighbors = Sets.newConcurrentHashSet();
-    sigma.getConceptNames().parallelStream().filter(A -> !C.conceptNames.contains(A)).map(A -> {
-      final ELConceptDescription lowerNeighbor = C.clone();
-      lowerNeighbor.conceptNames.add(A);
-      return lowerNeighbor;
-    }).forEach(lowerNeighbors::add);
-    sigma.getRoleNames().parallelStream().forEach(r -> {
-      final Set<ELConceptDescription> filter = C.existentialRestrictions
-          .entries()
-          .parallelStream()
-          .filter(existentialRestriction -> existentialRestriction.getKey().equals(r))
-          .map(Entry::getValue)
-          .collect(Collectors.toSet());
+    return ELExecutionContext.enter(() -> {
+      if (isBot())
+        return Collections.emptySet();
+      final ELConceptDescription C = getReducedForm();
+      final Set<ELConceptDescription> lowerNeighbors = Sets.newConcurrentHashSet();
+      sigma.getConceptNames().parallelStream().filter(A -> !C.conceptNames.contains(A)).map(A -> {
+        final ELConceptDescription lowerNeighbor = C.clone();
+        lowerNeighbor.conceptNames.add(A);
+        return lowerNeighbor;
+      }).forEach(lowerNeighbors::add);
+      sigma.getRoleNames().parallelStream().forEach(r -> {
+        final Set<ELConceptDescription> filter = C.existentialRestrictions
+            .entries()
+            .parallelStream()
+            .filter(existentialRestriction -> existentialRestriction.getKey().equals(r))
+            .map(Entry::getValue)
+            .collect(Collectors.toSet());
 //      if (filter.isEmpty()) {
 //        final ELConceptDescription lowerNeighbor = C.clone();
 //        lowerNeighbor.existentialRestrictions.put(r, ELConceptDescription.top());
 //        lowerNeighbors.add(lowerNeighbor);
 //      } else {
-      final Map<ELConceptDescription, Set<ELConceptDescription>> choices = new ConcurrentHashMap<>();
-      filter.parallelStream().forEach(F -> {
-        final Set<ELConceptDescription> choicesForF = Sets.newConcurrentHashSet();
-        choices.put(F, choicesForF);
-        F.lowerNeighbors(sigma).parallelStream().forEach(L -> {
-          choicesForF.add(L.without(F));
+        final Map<ELConceptDescription, Set<ELConceptDescription>> choices = new ConcurrentHashMap<>();
+        filter.parallelStream().forEach(F -> {
+          final Set<ELConceptDescription> choicesForF = Sets.newConcurrentHashSet();
+          choices.put(F, choicesForF);
+          F.lowerNeighbors(sigma).parallelStream().forEach(L -> {
+            choicesForF.add(L.without(F));
+          });
         });
-      });
-      final Map<ELConceptDescription, Set<ELConceptDescription>> subsumees = new ConcurrentHashMap<>();
-      choices.entrySet().parallelStream().forEach(entry -> {
+        final Map<ELConceptDescription, Set<ELConceptDescription>> subsumees = new ConcurrentHashMap<>();
+        choices.entrySet().parallelStream().forEach(entry -> {
 //          final ELConceptDescription F = entry.getKey();
-        final Set<ELConceptDescription> choicesForF = entry.getValue();
-        choicesForF.parallelStream().forEach(X -> {
-          final Set<ELConceptDescription> subsumeesOfX = Sets.newConcurrentHashSet();
-          subsumees.put(X, subsumeesOfX);
-          filter.parallelStream().filter(X::subsumes).forEach(subsumeesOfX::add);
-        });
-      });
-      Sets
-          .powerSet(filter)
-          .parallelStream()
-          // .filter(FF -> !FF.isEmpty())
-          .forEach(FF -> {
-            choices
-                .entrySet()
-                .parallelStream()
-                .filter(entry -> FF.contains(entry.getKey()))
-                .map(
-                    entry -> Sets
-                        .filter(
-                            entry.getValue(),
-                            X -> FF
-                                .parallelStream()
-                                .filter(F1 -> !entry.getKey().equals(F1))
-                                .allMatch(F1 -> subsumees.get(X).contains(F1))))
-                .reduce(
-                    Collections.singleton(Collections.<ELConceptDescription> emptySet()),
-                    (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
-                      final Set<ELConceptDescription> xy = Sets.newHashSet(x);
-                      xy.add(y);
-                      return xy;
-                    })).collect(Collectors.toSet()),
-                    (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
-                      final Set<ELConceptDescription> xy = Sets.newHashSet(x);
-                      xy.addAll(y);
-                      return xy;
-                    })).collect(Collectors.toSet()))
-                .parallelStream()
-                .forEach(f -> {
-                  final ELConceptDescription D = ELConceptDescription.conjunction(f);
-                  if (filter
-                      .parallelStream()
-                      .filter(F0 -> !FF.contains(F0))
-                      .noneMatch(F0 -> f.parallelStream().allMatch(X -> subsumees.get(X).contains(F0)))) {
-                    final ELConceptDescription C_and_rD = C.clone();
-                    C_and_rD.getExistentialRestrictions().put(r, D.clone());
-                    lowerNeighbors.add(C_and_rD);
-                    // System.out.println("new lower neighbor found: C⊓∃" + r + "." + D);
-                  }
-                });
+          final Set<ELConceptDescription> choicesForF = entry.getValue();
+          choicesForF.parallelStream().forEach(X -> {
+            final Set<ELConceptDescription> subsumeesOfX = Sets.newConcurrentHashSet();
+            subsumees.put(X, subsumeesOfX);
+            filter.parallelStream().filter(X::subsumes).forEach(subsumeesOfX::add);
           });
+        });
+        Sets
+            .powerSet(filter)
+            .parallelStream()
+            // .filter(FF -> !FF.isEmpty())
+            .forEach(FF -> {
+              choices
+                  .entrySet()
+                  .parallelStream()
+                  .filter(entry -> FF.contains(entry.getKey()))
+                  .map(
+                      entry -> Sets
+                          .filter(
+                              entry.getValue(),
+                              X -> FF
+                                  .parallelStream()
+                                  .filter(F1 -> !entry.getKey().equals(F1))
+                                  .allMatch(F1 -> subsumees.get(X).contains(F1))))
+                  .reduce(
+                      Collections.singleton(Collections.<ELConceptDescription> emptySet()),
+                      (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
+                        final Set<ELConceptDescription> xy = Sets.newHashSet(x);
+                        xy.add(y);
+                        return xy;
+                      })).collect(Collectors.toSet()),
+                      (X, Y) -> X.parallelStream().flatMap(x -> Y.parallelStream().map(y -> {
+                        final Set<ELConceptDescription> xy = Sets.newHashSet(x);
+                        xy.addAll(y);
+                        return xy;
+                      })).collect(Collectors.toSet()))
+                  .parallelStream()
+                  .forEach(f -> {
+                    final ELConceptDescription D = ELConceptDescription.conjunction(f);
+                    if (filter
+                        .parallelStream()
+                        .filter(F0 -> !FF.contains(F0))
+                        .noneMatch(F0 -> f.parallelStream().allMatch(X -> subsumees.get(X).contains(F0)))) {
+                      final ELConceptDescription C_and_rD = C.clone();
+                      C_and_rD.getExistentialRestrictions().put(r, D.clone());
+                      lowerNeighbors.add(C_and_rD);
+                      // System.out.println("new lower neighbor found: C⊓∃" + r + "." + D);
+                    }
+                  });
+            });
 //      }
+      });
+      return lowerNeighbors;
     });
-    return lowerNeighbors;
   }
 
   public final Set<ELConceptDescription> lowerNeighbors1(final Signature sigma) {
-    final ELConceptDescription C = ELConceptDescription.this.clone().reduce();
-    final Set<ELConceptDescription> lowerNeighbors = Sets.newConcurrentHashSet();
-    sigma.getConceptNames().parallelStream().filter(A -> !C.conceptNames.contains(A)).map(A -> {
-      final ELConceptDescription lowerNeighbor = C.clone();
-      lowerNeighbor.conceptNames.add(A);
-      return lowerNeighbor;
-    }).forEach(lowerNeighbors::add);
-    sigma.getRoleNames().parallelStream().forEach(r -> {
-      final Set<ELConceptDescription> filter = C.existentialRestrictions
-          .entries()
+    return ELExecutionContext.enter(() -> {
+      final ELConceptDescription C = getReducedForm();
+      final Set<ELConceptDescription> lowerNeighbors = Sets.newConcurrentHashSet();
+      sigma
+          .getConceptNames()
           .parallelStream()
-          .filter(existentialRestriction -> existentialRestriction.getKey().equals(r))
-          .map(Entry::getValue)
-          .collect(Collectors.toSet());
-      if (filter.isEmpty()) {
-        final ELConceptDescription lowerNeighbor = C.clone();
-        lowerNeighbor.existentialRestrictions.put(r, ELConceptDescription.top());
-        lowerNeighbors.add(lowerNeighbor);
-      } else
-        recurseLowerNeighbors1(sigma, r, C, Collections.singleton(ELConceptDescription.top()), filter, lowerNeighbors);
+          .filter(A -> !C.conceptNames.contains(A))
+          .map(C::withConceptName)
+          .forEach(lowerNeighbors::add);
+      sigma.getRoleNames().parallelStream().forEach(r -> {
+        final Set<ELConceptDescription> filter = C.existentialRestrictions
+            .entries()
+            .parallelStream()
+            .filter(existentialRestriction -> existentialRestriction.getKey().equals(r))
+            .map(Entry::getValue)
+            .collect(Collectors.toSet());
+        if (filter.isEmpty())
+          lowerNeighbors.add(C.withExistentialRestriction(r, ELConceptDescription.top()));
+        else
+          recurseLowerNeighbors1(
+              sigma,
+              r,
+              C,
+              Collections.singleton(ELConceptDescription.top()),
+              filter,
+              lowerNeighbors);
+      });
+      return lowerNeighbors;
     });
-    return lowerNeighbors;
   }
 
   private final void recurseLowerNeighbors1(
@@ -1152,23 +1919,81 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
         return;
       else if (filter.parallelStream().anyMatch(F -> F.isSubsumedBy(D)))
         D.lowerNeighbors1(sigma).parallelStream().forEach(nextCandidates::add);
-      else {
-        final ELConceptDescription X = C.clone();
-        X.existentialRestrictions.put(r, D);
-        lowerNeighbors.add(X);
-      }
+      else
+        lowerNeighbors.add(C.withExistentialRestriction(r, D));
     });
     if (!nextCandidates.isEmpty())
       recurseLowerNeighbors1(sigma, r, C, nextCandidates, filter, lowerNeighbors);
   }
 
+  /**
+   * Lazily enumerates the lower neighbors of this concept description w.r.t. the signature, cf.
+   * {@link #lowerNeighbors1(Signature)}. The candidate fillers are explored level by level, but only as far as
+   * required by the consumer, and duplicates are dropped on the fly.
+   */
+  public final Stream<ELConceptDescription> lowerNeighbors1Stream(final Signature sigma) {
+    return distinct(lowerNeighbors1Iterator(sigma), ELConceptDescription::intern);
+  }
+
+  public final Stream<ELConceptDescription> lowerNeighborsReduced1Stream(final Signature sigma) {
+    return distinct(
+        Iterators.transform(lowerNeighbors1Iterator(sigma), ELConceptDescription::reduce),
+        ELConceptDescription::reducedKey);
+  }
+
+  private final Iterator<ELConceptDescription> lowerNeighbors1Iterator(final Signature sigma) {
+    final ELConceptDescription C = getReducedForm();
+    final Iterator<ELConceptDescription> fromConceptNames = Iterators
+        .transform(
+            Iterators.filter(new ArrayList<>(sigma.getConceptNames()).iterator(), A -> !C.conceptNames.contains(A)),
+            C::withConceptName);
+    final Iterator<ELConceptDescription> fromRoleNames =
+        Iterators.concat(Iterators.transform(new ArrayList<>(sigma.getRoleNames()).iterator(), r -> {
+          final Set<ELConceptDescription> filter = new HashSet<>(C.existentialRestrictions.get(r));
+          if (filter.isEmpty())
+            return Iterators.singletonIterator(C.withExistentialRestriction(r, ELConceptDescription.top()));
+          return new AbstractIterator<ELConceptDescription>() {
+
+            private Iterator<ELConceptDescription> currentCandidates =
+                Iterators.singletonIterator(ELConceptDescription.top());
+            private Set<ELConceptDescription>      nextCandidates    = new HashSet<>();
+
+            @Override
+            protected final ELConceptDescription computeNext() {
+              while (true) {
+                if (!currentCandidates.hasNext()) {
+                  if (nextCandidates.isEmpty())
+                    return endOfData();
+                  currentCandidates = nextCandidates.iterator();
+                  nextCandidates = new HashSet<>();
+                  continue;
+                }
+                final ELConceptDescription D = currentCandidates.next();
+                if (!D
+                    .upperNeighborsReduced()
+                    .parallelStream()
+                    .allMatch(U -> C.isSubsumedBy(ELConceptDescription.existentialRestriction(r, U))))
+                  continue;
+                else if (filter.parallelStream().anyMatch(F -> F.isSubsumedBy(D)))
+                  D.lowerNeighbors1Stream(sigma).forEach(nextCandidates::add);
+                else
+                  return C.withExistentialRestriction(r, D);
+              }
+            }
+          };
+        }));
+    return Iterators.concat(fromConceptNames, fromRoleNames);
+  }
+
   public final Set<ELConceptDescription> lowerNeighborsReduced1(final Signature sigma) {
+    return ELExecutionContext.enter(() -> {
 //    final Set<ELConceptDescription> lowerNeighbors = lowerNeighbors(sigma);
 //    lowerNeighbors.parallelStream().forEach(ELConceptDescription::reduce);
-    final Set<ELConceptDescription> lowerNeighbors = new HashSet<>();
-    for (ELConceptDescription lowerNeighbor : lowerNeighbors1(sigma))
-      lowerNeighbors.add(lowerNeighbor.reduce());
-    return lowerNeighbors;
+      final Set<ELConceptDescription> lowerNeighbors = new HashSet<>();
+      for (ELConceptDescription lowerNeighbor : lowerNeighbors1(sigma))
+        lowerNeighbors.add(lowerNeighbor.reduce());
+      return lowerNeighbors;
+    });
   }
 
 //  protected final Set<ELConceptDescription> lowerNeighbors2(final Signature sigma) {
@@ -2511,20 +3336,16 @@ public final class ELConceptDescription implements LatticeElement<ELConceptDescr
   public final ELConceptDescription clone() {
     final ELConceptDescription clone = new ELConceptDescription();
     clone.getConceptNames().addAll(this.getConceptNames());
-    this
-        .getDataValues()
-        .entries()
-        .parallelStream()
-        .map(ER -> Pair.of(ER.getKey(), ER.getValue()))
-        .sequential()
-        .forEach(ER -> clone.getDataValues().put(ER.x(), ER.y()));
-    this
-        .getExistentialRestrictions()
-        .entries()
-        .parallelStream()
-        .map(ER -> Pair.of(ER.getKey(), ER.getValue().clone()))
-        .sequential()
-        .forEach(ER -> clone.getExistentialRestrictions().put(ER.x(), ER.y()));
+    clone.getDataValues().putAll(this.getDataValues());
+    for (Entry<IRI, ELConceptDescription> ER : this.getExistentialRestrictions().entries())
+      clone.getExistentialRestrictions().put(ER.getKey(), ER.getValue().clone());
+    final boolean reduced = this.reduced;
+    final ImmutableELConceptDescription interned = this.interned;
+    if (reduced || interned != null) {
+      clone.observe();
+      clone.reduced = reduced;
+      clone.interned = interned;
+    }
     return clone;
   }
 
@@ -0,0 +1,207 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * The execution context of the operations on EL concept descriptions, which determines where their parallel streams
+ * are executed. The operations enter the context of the calling thread (or the process-wide default context) before
+ * they start working, i.e., they hop into its dedicated {@link ForkJoinPool} such that all nested parallel streams are
+ * confined to that pool. Available contexts are
+ * <ul>
+ * <li>the JVM-wide common pool (the default, which does not hop at all),
+ * <li>a dedicated pool with a configurable parallelism, and
+ * <li>a sequential mode, in which all work is done by a single worker thread and streams obtained via
+ * {@link #stream(Collection)} are sequential.
+ * </ul>
+ * In the parallel contexts, small collections can nevertheless be streamed sequentially, see
+ * {@link #setSequentialThreshold(int)}.
+ * An operation can be executed in an explicit context by means of {@link #call(Supplier)}, e.g.,
+ * {@code context.call(() -> concept.upperNeighbors())}. Lazily evaluated streams are executed in the context of the
+ * thread that consumes them.
+ */
+public final class ELExecutionContext {
+
+  /**
+   * Collections with fewer elements are streamed sequentially. The threshold applies to each level of a description
+   * tree separately, i.e., only the levels with a large fan-out are processed in parallel. The default was measured
+   * with the ELSequentialThresholdBenchmark in the test sources, with one and with four worker threads; since the
+   * break-even point depends on the number of cores, it should be measured again on the machine at hand.
+   */
+  public static final int                    DEFAULT_SEQUENTIAL_THRESHOLD = 64;
+
+  private static final ELExecutionContext    commonPool                   = new ELExecutionContext(null, true);
+  private static volatile ELExecutionContext defaultContext               = commonPool;
+  private static volatile int                sequentialThreshold          = DEFAULT_SEQUENTIAL_THRESHOLD;
+
+  public static final ELExecutionContext commonPool() {
+    return commonPool;
+  }
+
+  /**
+   * @return a new context with a dedicated pool of the given parallelism
+   */
+  public static final ELExecutionContext dedicated(final int parallelism) {
+    return new ELExecutionContext(parallelism, true);
+  }
+
+  /**
+   * @return a new context in which all work is done sequentially by a single dedicated worker thread
+   */
+  public static final ELExecutionContext sequential() {
+    return new ELExecutionContext(1, false);
+  }
+
+  public static final ELExecutionContext getDefault() {
+    return defaultContext;
+  }
+
+  /**
+   * Sets the context that is used by all operations that are not explicitly executed in another context. This is
+   * meant to be called once at startup, e.g., in order to isolate reasoning from the remaining parallel work of the
+   * application.
+   */
+  public static final void setDefault(final ELExecutionContext context) {
+    if (context == null)
+      throw new NullPointerException();
+    defaultContext = context;
+  }
+
+  public static final int getSequentialThreshold() {
+    return sequentialThreshold;
+  }
+
+  /**
+   * Sets the minimal number of elements for which {@link #stream(Collection)} returns a parallel stream.
+   */
+  public static final void setSequentialThreshold(final int sequentialThreshold) {
+    if (sequentialThreshold < 0)
+      throw new IllegalArgumentException();
+    ELExecutionContext.sequentialThreshold = sequentialThreshold;
+  }
+
+  /**
+   * @return the context of the current thread, i.e., the context of the pool the current thread is a worker of, or
+   *         the default context otherwise
+   */
+  public static final ELExecutionContext current() {
+    final Thread thread = Thread.currentThread();
+    if (thread instanceof Worker)
+      return ((Worker) thread).context;
+    return defaultContext;
+  }
+
+  /**
+   * Executes the given operation in the context of the current thread. All public operations on EL concept
+   * descriptions, interpretations and least common subsumers wrap their work with this method; it calls the operation
+   * directly if the current thread already works within its context, and otherwise hops into the pool of the context.
+   */
+  public static final <T> T enter(final Supplier<T> operation) {
+    return current().call(operation);
+  }
+
+  /**
+   * @return a stream of the given collection, which is parallel unless the context of the current thread is
+   *         sequential or the collection is smaller than the sequential threshold
+   */
+  public static final <E> Stream<E> streamOf(final Collection<E> collection) {
+    return current().stream(collection);
+  }
+
+  private static final class Worker extends ForkJoinWorkerThread {
+
+    private final ELExecutionContext context;
+
+    private Worker(final ForkJoinPool pool, final ELExecutionContext context) {
+      super(pool);
+      this.context = context;
+    }
+
+  }
+
+  private final ForkJoinPool pool;
+  private final boolean      parallel;
+
+  private ELExecutionContext(final Integer parallelism, final boolean parallel) {
+    super();
+    this.pool = parallelism == null ? null
+        : new ForkJoinPool(parallelism, pool -> new Worker(pool, ELExecutionContext.this), null, false);
+    this.parallel = parallel;
+  }
+
+  public final boolean isParallel() {
+    return parallel;
+  }
+
+  public final int getParallelism() {
+    return pool == null ? ForkJoinPool.getCommonPoolParallelism() : pool.getParallelism();
+  }
+
+  /**
+   * @return the result of the given operation, which is computed within this context
+   */
+  public final <T> T call(final Supplier<T> operation) {
+    if (pool == null || ForkJoinTask.getPool() == pool)
+      return operation.get();
+    return pool.invoke(ForkJoinTask.adapt(operation::get));
+  }
+
+  public final void run(final Runnable operation) {
+    call(() -> {
+      operation.run();
+      return null;
+    });
+  }
+
+  /**
+   * @return a stream of the given collection, which is parallel unless this context is sequential or the collection
+   *         is smaller than the sequential threshold
+   */
+  public final <E> Stream<E> stream(final Collection<E> collection) {
+    return parallel && collection.size() >= sequentialThreshold ? collection.parallelStream() : collection.stream();
+  }
+
+  /**
+   * Shuts down the dedicated pool of this context, if any.
+   */
+  public final void shutdown() {
+    if (pool != null)
+      pool.shutdown();
+  }
+
+  @Override
+  public final String toString() {
+    if (pool == null)
+      return "EL execution context on the common pool";
+    return (parallel ? "parallel" : "sequential") + " EL execution context with " + pool.getParallelism()
+        + " worker threads";
+  }
+
+}
@@ -145,72 +145,83 @@ public class ELInterpretation2<I> {
   }
 
   public final Set<I> getExtension(final ELConceptDescription conceptDescription) {
-    if (conceptDescription.isBot())
-      return Collections.emptySet();
-    else if (conceptDescription.isTop())
-      return new HashSet<>(this.getDomain());
-    else
-      return this.conceptNameExtensionMatrix
-          .colAnd(conceptDescription.getConceptNames())
-          .parallelStream()
-          .filter(satisfiesAllExistentialRestrictions(conceptDescription))
-          .collect(Collectors.toSet());
+    return ELExecutionContext.enter(() -> {
+      if (conceptDescription.isBot())
+        return Collections.emptySet();
+      else if (conceptDescription.isTop())
+        return new HashSet<>(this.getDomain());
+      else
+        return this.conceptNameExtensionMatrix
+            .colAnd(conceptDescription.getConceptNames())
+            .parallelStream()
+            .filter(satisfiesAllExistentialRestrictions(conceptDescription))
+            .collect(Collectors.toSet());
+    });
   }
 
   public final boolean isInExtensionOf(final I i, final ELConceptDescription conceptDescription) {
-    if (conceptDescription.isBot())
-      return false;
-    else if (conceptDescription.isTop())
-      return true;
-    else
-      return this.conceptNameExtensionMatrix.colAnd(conceptDescription.getConceptNames()).contains(i)
-          && satisfiesAllExistentialRestrictions(conceptDescription).test(i);
+    return ELExecutionContext.enter(() -> {
+      if (conceptDescription.isBot())
+        return false;
+      else if (conceptDescription.isTop())
+        return true;
+      else
+        return this.conceptNameExtensionMatrix.colAnd(conceptDescription.getConceptNames()).contains(i)
+            && satisfiesAllExistentialRestrictions(conceptDescription).test(i);
+    });
   }
 
   public final boolean models(final ELConceptInclusion conceptInclusion) {
-    return getDomain()
-        .parallelStream()
-        .allMatch(
-            Predicates
-                .<I> not(i -> isInExtensionOf(i, conceptInclusion.getSubsumee()))
-                .or(i -> isInExtensionOf(i, conceptInclusion.getSubsumer())));
+    return ELExecutionContext.enter(() -> {
+      return getDomain()
+          .parallelStream()
+          .allMatch(
+              Predicates
+                  .<I> not(i -> isInExtensionOf(i, conceptInclusion.getSubsumee()))
+                  .or(i -> isInExtensionOf(i, conceptInclusion.getSubsumer())));
+    });
   }
 
   public final boolean models(final ELTBox tBox) {
-    return tBox.getConceptInclusions().parallelStream().allMatch(this::models);
+    return ELExecutionContext.enter(() -> {
+      return tBox.getConceptInclusions().parallelStream().allMatch(this::models);
+    });
   }
 
   public final ELConceptDescription getMostSpecificConceptDescription(final I object, final int roleDepth) {
-    if (roleDepth < 0)
-      throw new IllegalArgumentException();
-    else {
-      final ELConceptDescription mmsc = new ELConceptDescription();
-      if (conceptNameExtensionMatrix.rowHeads().contains(object))
-        mmsc.getConceptNames().addAll(conceptNameExtensionMatrix.row(object));
-      if (roleDepth > 0) {
-        for (Entry<IRI, MatrixRelation<I, I>> e : roleNameExtensionMatrix.entrySet())
-          if (e.getValue().rowHeads().contains(object))
-            for (I successor : e.getValue().row(object))
-              mmsc
-                  .getExistentialRestrictions()
-                  .put(e.getKey(), getMostSpecificConceptDescription(successor, roleDepth - 1));
+    return ELExecutionContext.enter(() -> {
+      if (roleDepth < 0)
+        throw new IllegalArgumentException();
+      else {
+        final ELConceptDescription mmsc = new ELConceptDescription();
+        if (conceptNameExtensionMatrix.rowHeads().contains(object))
+          mmsc.getConceptNames().addAll(conceptNameExtensionMatrix.row(object));
+        if (roleDepth > 0) {
+          for (Entry<IRI, MatrixRelation<I, I>> e : roleNameExtensionMatrix.entrySet())
+            if (e.getValue().rowHeads().contains(object))
+              for (I successor : e.getValue().row(object))
+                mmsc
+                    .getExistentialRestrictions()
+                    .put(e.getKey(), getMostSpecificConceptDescription(successor, roleDepth - 1));
+        }
+        return mmsc.reduce();
       }
-      return mmsc.reduce();
-    }
+    });
   }
 
   public final ELConceptDescription getMostSpecificConceptDescription(final Set<I> objects, final int roleDepth) {
-    if (roleDepth < 0)
-      throw new IllegalArgumentException();
-    else if (objects.isEmpty())
-      return ELConceptDescription.bot();
-    else {
-      final Iterator<I> it = objects.iterator();
-      ELConceptDescription mmsc = getMostSpecificConceptDescription(it.next(), roleDepth);
-      while (it.hasNext())
-        mmsc = ELLeastCommonSubsumer.lcs(mmsc, getMostSpecificConceptDescription(it.next(), roleDepth));
-      return mmsc;
-    }
+    return ELExecutionContext.enter(() -> {
+      if (roleDepth < 0)
+        throw new IllegalArgumentException();
+      else if (objects.isEmpty())
+        return ELConceptDescription.bot();
+      else {
+        final Iterator<I> it = objects.iterator();
+        ELConceptDescription mmsc = getMostSpecificConceptDescription(it.next(), roleDepth);
+        while (it.hasNext())
+          mmsc = ELLeastCommonSubsumer.lcs(mmsc, getMostSpecificConceptDescription(it.next(), roleDepth));
+        return mmsc;
+      }
 //      return objects
 //          .parallelStream()
 //          .reduce(
@@ -218,64 +229,122 @@ public class ELInterpretation2<I> {
 //              (mmsc, object) -> ELLeastCommonSubsumer.lcs(mmsc, getMostSpecificConceptDescription(object, roleDepth)),
 //              ELLeastCommonSubsumer::lcs)
 //          .reduce();
+    });
+  }
+
+  /**
+   * @return the most specific concept description of the given objects up to the given role depth, cf.
+   *         {@link ELLeastCommonSubsumer#lcs(Set, int, int)}
+   * @throws ELSizeBudgetExceededException
+   *           if a concept description that is built during the computation is larger than the size budget
+   */
+  public final ELConceptDescription
+      getMostSpecificConceptDescription(final Set<I> objects, final int roleDepth, final int sizeBudget) {
+    return ELExecutionContext.enter(() -> {
+      if (roleDepth < 0)
+        throw new IllegalArgumentException();
+      final Set<ELConceptDescription> mmscs = objects
+          .parallelStream()
+          .map(object -> getMostSpecificConceptDescription(object, roleDepth, sizeBudget))
+          .collect(Collectors.toSet());
+      return ELLeastCommonSubsumer.lcs(mmscs, roleDepth, sizeBudget);
+    });
+  }
+
+  /**
+   * The most specific concept description of a single object is built bottom-up, and it is reduced as soon as it
+   * grows beyond the size budget. Since the unravelling of a cyclic interpretation grows exponentially with the role
+   * depth, the budget is checked at each level instead of only for the final least common subsumer.
+   *
+   * @throws ELSizeBudgetExceededException
+   *           if the reduced most specific concept description of the object or of one of its successors is larger
+   *           than the size budget
+   */
+  private final ELConceptDescription
+      getMostSpecificConceptDescription(final I object, final int roleDepth, final int sizeBudget) {
+    final ELConceptDescription mmsc = new ELConceptDescription();
+    if (conceptNameExtensionMatrix.rowHeads().contains(object))
+      mmsc.getConceptNames().addAll(conceptNameExtensionMatrix.row(object));
+    int size = 2 * mmsc.getConceptNames().size() - 1;
+    if (roleDepth > 0)
+      for (Entry<IRI, MatrixRelation<I, I>> e : roleNameExtensionMatrix.entrySet())
+        if (e.getValue().rowHeads().contains(object))
+          for (I successor : e.getValue().row(object)) {
+            final ELConceptDescription filler = getMostSpecificConceptDescription(successor, roleDepth - 1, sizeBudget);
+            if (mmsc.getExistentialRestrictions().put(e.getKey(), filler))
+              size += 2 + filler.size();
+            if (size > sizeBudget) {
+              size = mmsc.reduce().size();
+              if (size > sizeBudget)
+                throw new ELSizeBudgetExceededException(sizeBudget, size);
+            }
+          }
+    mmsc.reduce();
+    if (mmsc.size() > sizeBudget)
+      throw new ELSizeBudgetExceededException(sizeBudget, mmsc.size());
+    return mmsc;
   }
 
   public final ELConceptDescription getMostSpecificConceptDescription2(final Set<I> objects, final int roleDepth) {
-    if (roleDepth < 0)
-      throw new IllegalArgumentException();
-    else if (objects.isEmpty())
-      return ELConceptDescription.bot();
-    else {
-      final ELConceptDescription mmsc = new ELConceptDescription();
-      mmsc.getConceptNames().addAll(this.conceptNameExtensionMatrix.rowAnd(objects));
-      if (roleDepth > 0) {
-        for (Entry<IRI, MatrixRelation<I, I>> e : roleNameExtensionMatrix.entrySet()) {
-          final IRI roleName = e.getKey();
-          final Set<Set<I>> hypergraph = objects
-              .parallelStream()
-              .map(o -> e.getValue().rowHeads().contains(o) ? e.getValue().row(o) : Collections.<I> emptySet())
-              .collect(Collectors.toSet());
-          for (Set<I> mhs : getMinimalHittingSets(hypergraph)) {
-            mmsc.getExistentialRestrictions().put(roleName, getMostSpecificConceptDescription(mhs, roleDepth - 1));
+    return ELExecutionContext.enter(() -> {
+      if (roleDepth < 0)
+        throw new IllegalArgumentException();
+      else if (objects.isEmpty())
+        return ELConceptDescription.bot();
+      else {
+        final ELConceptDescription mmsc = new ELConceptDescription();
+        mmsc.getConceptNames().addAll(this.conceptNameExtensionMatrix.rowAnd(objects));
+        if (roleDepth > 0) {
+          for (Entry<IRI, MatrixRelation<I, I>> e : roleNameExtensionMatrix.entrySet()) {
+            final IRI roleName = e.getKey();
+            final Set<Set<I>> hypergraph = objects
+                .parallelStream()
+                .map(o -> e.getValue().rowHeads().contains(o) ? e.getValue().row(o) : Collections.<I> emptySet())
+                .collect(Collectors.toSet());
+            for (Set<I> mhs : getMinimalHittingSets(hypergraph)) {
+              mmsc.getExistentialRestrictions().put(roleName, getMostSpecificConceptDescription(mhs, roleDepth - 1));
+            }
           }
         }
+        return mmsc.reduce();
       }
-      return mmsc.reduce();
-    }
+    });
   }
 
   public static final <T> Set<Set<T>> getMinimalHittingSets(final Set<Set<T>> hypergraph) {
-    if (hypergraph.isEmpty())
-      return Collections.<Set<T>> emptySet();
-    else {
-      final Set<Set<T>> identity = Collections.singleton(Collections.emptySet());
-      final BiFunction<Set<Set<T>>, Set<T>, Set<Set<T>>> accumulator = (hittingSets, factor) -> hittingSets
-          .parallelStream()
-          .flatMap(hittingSet -> factor.parallelStream().map(element -> {
-            final Set<T> newHittingSet = new HashSet<>(hittingSet);
-            newHittingSet.add(element);
-            return newHittingSet;
-          }))
-          .collect(Collectors.toSet());
-      final BinaryOperator<Set<Set<T>>> combiner = (hittingSets1, hittingSets2) -> hittingSets1
-          .parallelStream()
-          .flatMap(hittingSet1 -> hittingSets2.parallelStream().map(hittingSet2 -> {
-            final Set<T> newHittingSet = new HashSet<>(hittingSet1);
-            newHittingSet.addAll(hittingSet2);
-            return newHittingSet;
-          }))
-          .collect(Collectors.toSet());
-      final Set<Set<T>> hittingSets = hypergraph.parallelStream().reduce(identity, accumulator, combiner);
-      final Set<Set<T>> nonMinimalHittingSets = Sets.newConcurrentHashSet();
-      hittingSets.parallelStream().forEach(hittingSet1 -> {
-        if (hittingSets
+    return ELExecutionContext.enter(() -> {
+      if (hypergraph.isEmpty())
+        return Collections.<Set<T>> emptySet();
+      else {
+        final Set<Set<T>> identity = Collections.singleton(Collections.emptySet());
+        final BiFunction<Set<Set<T>>, Set<T>, Set<Set<T>>> accumulator = (hittingSets, factor) -> hittingSets
             .parallelStream()
-            .anyMatch(hittingSet2 -> hittingSet1.containsAll(hittingSet2) && !hittingSet2.containsAll(hittingSet1)))
-          nonMinimalHittingSets.add(hittingSet1);
-      });
-      hittingSets.removeAll(nonMinimalHittingSets);
-      return hittingSets;
-    }
+            .flatMap(hittingSet -> factor.parallelStream().map(element -> {
+              final Set<T> newHittingSet = new HashSet<>(hittingSet);
+              newHittingSet.add(element);
+              return newHittingSet;
+            }))
+            .collect(Collectors.toSet());
+        final BinaryOperator<Set<Set<T>>> combiner = (hittingSets1, hittingSets2) -> hittingSets1
+            .parallelStream()
+            .flatMap(hittingSet1 -> hittingSets2.parallelStream().map(hittingSet2 -> {
+              final Set<T> newHittingSet = new HashSet<>(hittingSet1);
+              newHittingSet.addAll(hittingSet2);
+              return newHittingSet;
+            }))
+            .collect(Collectors.toSet());
+        final Set<Set<T>> hittingSets = hypergraph.parallelStream().reduce(identity, accumulator, combiner);
+        final Set<Set<T>> nonMinimalHittingSets = Sets.newConcurrentHashSet();
+        hittingSets.parallelStream().forEach(hittingSet1 -> {
+          if (hittingSets
+              .parallelStream()
+              .anyMatch(hittingSet2 -> hittingSet1.containsAll(hittingSet2) && !hittingSet2.containsAll(hittingSet1)))
+            nonMinimalHittingSets.add(hittingSet1);
+        });
+        hittingSets.removeAll(nonMinimalHittingSets);
+        return hittingSets;
+      }
+    });
   }
 
 
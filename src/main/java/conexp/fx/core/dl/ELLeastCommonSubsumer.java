@@ -26,7 +26,9 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.semanticweb.owlapi.apibinding.OWLManager;
@@ -34,6 +36,7 @@ import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
 import conexp.fx.core.collections.Collections3;
@@ -119,14 +122,68 @@ public class ELLeastCommonSubsumer {
   }
 
   public static final ELConceptDescription lcs(final Set<ELConceptDescription> Cs) {
-    Cs.parallelStream().filter(c -> !c.isBot()).forEach(ELConceptDescription::reduce);
-    final Set<ELConceptDescription> Ds = Collections3.representatives(Cs, (X, Y) -> X.isEquivalentTo(Y));
-    if (Ds.isEmpty())
-      return ELConceptDescription.bot();
-    else if (Ds.size() == 1)
-      return Ds.iterator().next().clone();
-    else
-      return lcsOfMutuallyIncomparable(Ds);
+    return ELExecutionContext.enter(() -> {
+      Cs.parallelStream().filter(c -> !c.isBot()).forEach(ELConceptDescription::reduce);
+      final Set<ELConceptDescription> Ds =
+          Collections3.representatives(Cs, ELConceptDescription::fingerprint, ELConceptDescription::isEquivalentTo);
+      if (Ds.isEmpty())
+        return ELConceptDescription.bot();
+      else if (Ds.size() == 1)
+        return Ds.iterator().next().clone();
+      else
+        return lcsOfMutuallyIncomparable(Ds);
+    });
+  }
+
+  /**
+   * @return the least common subsumer of the given concept descriptions up to the given role depth, i.e., the
+   *         existential restrictions of the concept descriptions are never expanded beyond the role depth
+   */
+  public static final ELConceptDescription lcs(final Set<ELConceptDescription> Cs, final int roleDepth) {
+    return lcs(Cs, roleDepth, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Computes the least common subsumer of the given concept descriptions up to the given role depth, but fails as soon
+   * as a concept description that is built during the computation is larger than the size budget, i.e., the result,
+   * an intermediate least common subsumer of fillers, or an unreduced conjunction of candidate existential
+   * restrictions. The given concept descriptions are not modified.
+   * 
+   * @throws ELSizeBudgetExceededException
+   *           if the size budget is exceeded
+   */
+  public static final ELConceptDescription
+      lcs(final Set<ELConceptDescription> Cs, final int roleDepth, final int sizeBudget) {
+    if (roleDepth < 0 || sizeBudget < 1)
+      throw new IllegalArgumentException();
+    return ELExecutionContext.enter(() -> {
+      // bottom must be recognized before the restriction, since it may only occur beyond the role depth
+      final Set<ELConceptDescription> Ds = Cs
+          .stream()
+          .filter(C -> !C.isBot())
+          .map(C -> restrictedCopyOf(C, roleDepth).reduce())
+          .collect(Collectors.toSet());
+      if (Ds.isEmpty())
+        return ELConceptDescription.bot();
+      final ELConceptDescription lcs = lcsOfMutuallyIncomparable(
+          Collections3.representatives(Ds, ELConceptDescription::fingerprint, ELConceptDescription::isEquivalentTo),
+          sizeBudget);
+      if (lcs.size() > sizeBudget)
+        throw new ELSizeBudgetExceededException(sizeBudget, lcs.size());
+      return lcs;
+    });
+  }
+
+  private static final ELConceptDescription restrictedCopyOf(final ELConceptDescription C, final int roleDepth) {
+    final ELConceptDescription copy = new ELConceptDescription();
+    copy.getConceptNames().addAll(C.getConceptNames());
+    copy.getDataValues().putAll(C.getDataValues());
+    if (roleDepth > 0)
+      for (Entry<IRI, ELConceptDescription> existentialRestriction : C.getExistentialRestrictions().entries())
+        copy
+            .getExistentialRestrictions()
+            .put(existentialRestriction.getKey(), restrictedCopyOf(existentialRestriction.getValue(), roleDepth - 1));
+    return copy;
   }
 
   public static final ELConceptDescription
@@ -135,10 +192,40 @@ public class ELLeastCommonSubsumer {
   }
 
   public static final ELConceptDescription lcsOfMutuallyIncomparable(final Set<ELConceptDescription> Ds) {
-    final Set<ELConceptDescription> _Ds = new HashSet<>(Ds);
-    _Ds.removeIf(d -> d.isBot());
-    if (_Ds.isEmpty())
-      return ELConceptDescription.bot();
+    return lcsOfMutuallyIncomparable(Ds, Integer.MAX_VALUE);
+  }
+
+  private static final ELConceptDescription
+      lcsOfMutuallyIncomparable(final Set<ELConceptDescription> Ds, final int sizeBudget) {
+    return ELExecutionContext.enter(() -> {
+      final Set<ELConceptDescription> _Ds = new HashSet<>(Ds);
+      _Ds.removeIf(d -> d.isBot());
+      if (_Ds.isEmpty())
+        return ELConceptDescription.bot();
+      final ImmutableSet<ImmutableELConceptDescription> key =
+          _Ds.stream().map(ELConceptDescription::intern).collect(ImmutableSet.toImmutableSet());
+      // the cached least common subsumer is immutable, and each caller obtains a fresh copy of it
+      final ImmutableELConceptDescription lcs = ELLeastCommonSubsumerCache
+          .global()
+          .lcs(key, () -> computeLcsOfMutuallyIncomparable(_Ds, sizeBudget).intern());
+      // the least common subsumer may have been cached by a computation without budget
+      if (lcs.size() > sizeBudget)
+        throw new ELSizeBudgetExceededException(sizeBudget, lcs.size());
+      return ELConceptDescription.reducedCopyOf(lcs);
+    });
+  }
+
+  private static final ELConceptDescription
+      computeLcsOfMutuallyIncomparable(final Set<ELConceptDescription> _Ds, final int sizeBudget) {
+    // the product of all filler sets grows exponentially with the number of concept descriptions, whereas the pairwise
+    // fold only ever multiplies the fillers of one reduced intermediate result with those of the next concept
+    // description; since each step yields a reduced form, the result does not depend on the order of the steps, and
+    // the fold may be carried out as a parallel tree reduction
+    if (_Ds.size() > 2)
+      return ELExecutionContext
+          .streamOf(_Ds)
+          .reduce((C, D) -> lcsOfMutuallyIncomparable(Sets.newHashSet(C, D), sizeBudget))
+          .get();
     final ELConceptDescription lcs = new ELConceptDescription();
     final Iterator<ELConceptDescription> it = _Ds.iterator();
     final ELConceptDescription D = it.next();
@@ -149,6 +236,8 @@ public class ELLeastCommonSubsumer {
         .filter(A -> _Ds.parallelStream().map(ELConceptDescription::getConceptNames).allMatch(As -> As.contains(A)))
         .collect(Collectors.toSet());
     lcs.getConceptNames().addAll(commonConceptNames);
+    // the size of the unreduced conjunction, which is tracked while the candidate existential restrictions are built
+    final AtomicInteger size = new AtomicInteger(2 * commonConceptNames.size() - 1);
     final Set<IRI> commonRoleNames = D
         .getExistentialRestrictions()
         .keySet()
@@ -176,11 +265,19 @@ public class ELLeastCommonSubsumer {
                                 .collect(Collectors.toList()))
                         .parallelStream()
                         .map(HashSet::new)
-                        .map(ELLeastCommonSubsumer::lcsOfMutuallyIncomparable)
-                        .map(ELConceptDescription::reduce)
+                        .map(Fs -> {
+                          // other workers may have exhausted the budget in the meantime
+                          if (size.get() > sizeBudget)
+                            throw new ELSizeBudgetExceededException(sizeBudget, size.get());
+                          final ELConceptDescription F = lcsOfMutuallyIncomparable(Fs, sizeBudget);
+                          final int newSize = size.addAndGet(2 + F.size());
+                          if (newSize > sizeBudget)
+                            throw new ELSizeBudgetExceededException(sizeBudget, newSize);
+                          return F.reduce();
+                        })
                         .collect(Collectors.toSet())))
         .sequential()
-        .forEach(p -> lcs.getExistentialRestrictions().putAll(p.x(), p.y()));;
+        .forEach(p -> lcs.getExistentialRestrictions().putAll(p.x(), p.y()));
     return lcs.clone().reduce();
   }
 
@@ -0,0 +1,97 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.function.Supplier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A bounded, thread-safe memo of least common subsumers (w.r.t. the empty TBox). Keys are sets of interned concept
+ * descriptions, i.e., they do not depend on the order of the arguments, and both keys and values are immutable, such
+ * that the cache is insensitive to later modifications of the mutable descriptions that were queried or returned.
+ * {@link ELLeastCommonSubsumer} uses the process-wide instance, which is shared by all recursive computations of the
+ * least common subsumers of fillers.
+ */
+public final class ELLeastCommonSubsumerCache {
+
+  public static final long                           DEFAULT_MAXIMUM_SIZE = 1 << 16;
+
+  private static volatile ELLeastCommonSubsumerCache global               =
+      new ELLeastCommonSubsumerCache(DEFAULT_MAXIMUM_SIZE);
+
+  /**
+   * Replaces the process-wide cache by an empty one with the given size limit.
+   */
+  public static final void setGlobalMaximumSize(final long maximumSize) {
+    global = new ELLeastCommonSubsumerCache(maximumSize);
+  }
+
+  public static final ELLeastCommonSubsumerCache global() {
+    return global;
+  }
+
+  private final Cache<ImmutableSet<ImmutableELConceptDescription>, ImmutableELConceptDescription> cache;
+
+  public ELLeastCommonSubsumerCache(final long maximumSize) {
+    super();
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  /**
+   * @return the cached least common subsumer of the given concept descriptions, which is computed by the given
+   *         supplier (and then cached) if not present
+   */
+  public final ImmutableELConceptDescription lcs(
+      final ImmutableSet<ImmutableELConceptDescription> concepts,
+      final Supplier<ImmutableELConceptDescription> supplier) {
+    final ImmutableELConceptDescription cached = cache.getIfPresent(concepts);
+    if (cached != null)
+      return cached;
+    // the supplier recursively accesses this cache, hence it must not run within a loader of the underlying cache
+    final ImmutableELConceptDescription lcs = supplier.get();
+    cache.put(concepts, lcs);
+    return lcs;
+  }
+
+  public final CacheStats stats() {
+    return cache.stats();
+  }
+
+  public final long size() {
+    return cache.size();
+  }
+
+  public final void clear() {
+    cache.invalidateAll();
+  }
+
+  @Override
+  public final String toString() {
+    return "EL least common subsumer cache of size " + cache.size() + " with " + cache.stats();
+  }
+
+}
@@ -22,15 +22,51 @@ package conexp.fx.core.dl;
  * #L%
  */
 
-import org.semanticweb.elk.owlapi.ElkReasonerFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.apibinding.OWLManager;
-import org.semanticweb.owlapi.reasoner.InferenceType;
-import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.MapMaker;
+
+import conexp.fx.core.collections.relation.MatrixRelation;
 
 public class ELReasoner {
 
+  public enum SubsumptionEngine {
+    /**
+     * recursive structural comparison of the existential restrictions, memoized in an {@link ELSubsumptionCache}
+     */
+    STRUCTURAL,
+    /**
+     * computation of the maximal simulation between both description trees by dynamic programming, see
+     * {@link ELSimulation}
+     */
+    SIMULATION
+  }
+
+  private static final IRI                  THING             = OWLManager.getOWLDataFactory().getOWLThing().getIRI();
+  private static volatile SubsumptionEngine subsumptionEngine = SubsumptionEngine.STRUCTURAL;
+  private static final LongAdder            prefilterTests      = new LongAdder();
+  private static final LongAdder            prefilterRejections = new LongAdder();
+
+  public static final SubsumptionEngine getSubsumptionEngine() {
+    return subsumptionEngine;
+  }
+
+  public static final void setSubsumptionEngine(final SubsumptionEngine subsumptionEngine) {
+    if (subsumptionEngine == null)
+      throw new NullPointerException();
+    ELReasoner.subsumptionEngine = subsumptionEngine;
+  }
+
   public static final boolean subsumes(final OWLClassExpression concept1, final OWLClassExpression concept2) {
     return isSubsumedBy(concept2, concept1);
   }
@@ -49,87 +85,207 @@ public class ELReasoner {
    * @return true, iff concept1 is subsumed by concept2 (w.r.t. empty TBox)
    */
   public static final boolean isSubsumedBy(final ELConceptDescription concept1, final ELConceptDescription concept2) {
-    final ELConceptDescription _concept1 = concept1.clone().reduce();
-    final ELConceptDescription _concept2 = concept2.clone().reduce();
-    if (_concept1.isBot())
+    return isSubsumedBy(concept1, concept2, ELSubsumptionCache.current());
+  }
+
+  /**
+   * @param concept1
+   * @param concept2
+   * @param cache
+   * @return true, iff concept1 is subsumed by concept2 (w.r.t. empty TBox), where all recursive subsumption tests are
+   *         memoized in the given cache
+   */
+  public static final boolean isSubsumedBy(
+      final ELConceptDescription concept1,
+      final ELConceptDescription concept2,
+      final ELSubsumptionCache cache) {
+    return ELExecutionContext.enter(() -> {
+      // the cached summaries allow for rejecting many candidates before the concept descriptions are interned
+      if (!concept1.isBot()
+          && !prefilter(concept1.roleDepth(), concept1.signatureMask(), concept2.roleDepth(), concept2.signatureMask()))
+        return false;
+      switch (subsumptionEngine) {
+      case SIMULATION:
+        return isSubsumedBySimulation(concept1.intern(), concept2.intern(), cache);
+      case STRUCTURAL:
+      default:
+        return isSubsumedBy(concept1.intern(), concept2.intern(), cache);
+      }
+    });
+  }
+
+  private static final boolean isSubsumedBySimulation(
+      final ImmutableELConceptDescription concept1,
+      final ImmutableELConceptDescription concept2,
+      final ELSubsumptionCache cache) {
+    if (concept1 == concept2)
       return true;
-    if (_concept2.isTop())
+    if (concept1.isBot())
       return true;
-    if (!_concept1.getConceptNames().containsAll(_concept2.getConceptNames()))
+    if (concept2.isTop())
+      return true;
+    if (!prefilter(concept1.roleDepth(), concept1.signatureMask(), concept2.roleDepth(), concept2.signatureMask()))
       return false;
-    if (!_concept2.getDataValues()
-            .entries()
-            .parallelStream()
-            .allMatch(
-                 dataValue2 ->  _concept1.getDataValues()
-                    .entries()
-                    .parallelStream()
-                    .anyMatch(
-                            dataValue1 -> dataValue2.getKey().equals(dataValue1.getKey())
-                            && dataValue1.getValue().equals(dataValue2.getValue()))))
+    return cache.isSubsumedBy(concept1, concept2, () -> {
+      final ELSimulation simulation = ELSimulation.of(concept1, concept2);
+      simulation.cacheInto(cache);
+      return simulation.isSubsumedBy();
+    });
+  }
+
+  private static final boolean isSubsumedBy(
+      final ImmutableELConceptDescription concept1,
+      final ImmutableELConceptDescription concept2,
+      final ELSubsumptionCache cache) {
+    if (concept1 == concept2)
+      return true;
+    if (concept1.isBot())
+      return true;
+    if (concept2.isTop())
+      return true;
+    if (!prefilter(concept1.roleDepth(), concept1.signatureMask(), concept2.roleDepth(), concept2.signatureMask()))
       return false;
-    return _concept2
-        .getExistentialRestrictions()
-        .entries()
-        .parallelStream()
-        .allMatch(
-            existentialRestriction2 -> _concept1
-                .getExistentialRestrictions()
-                .entries()
-                .parallelStream()
-                .anyMatch(
-                    existentialRestriction1 -> existentialRestriction2.getKey().equals(existentialRestriction1.getKey())
-                        && isSubsumedBy(existentialRestriction1.getValue(), existentialRestriction2.getValue())));
+    return cache.isSubsumedBy(concept1, concept2, () -> {
+      for (IRI A : concept2.getConceptNames())
+        if (!A.equals(THING) && !concept1.getConceptNames().contains(A))
+          return false;
+      if (!concept1.getDataValues().entries().containsAll(concept2.getDataValues().entries()))
+        return false;
+      return ELExecutionContext
+          .streamOf(concept2.getExistentialRestrictions().entries())
+          .allMatch(
+              existentialRestriction2 -> ELExecutionContext
+                  .streamOf(concept1.getExistentialRestrictions().get(existentialRestriction2.getKey()))
+                  .anyMatch(filler1 -> isSubsumedBy(filler1, existentialRestriction2.getValue(), cache)));
+    });
   }
 
+  /**
+   * A subsumee that is not equivalent to bottom is at least as deep as each of its subsumers, and its signature
+   * contains theirs, cf. {@link ImmutableELConceptDescription#signatureMask()}.
+   * 
+   * @return false, if concept1 is certainly not subsumed by concept2, where concept1 must not be equivalent to bottom
+   */
+  private static final boolean
+      prefilter(final int roleDepth1, final long signatureMask1, final int roleDepth2, final long signatureMask2) {
+    prefilterTests.increment();
+    if (roleDepth1 >= roleDepth2 && (signatureMask2 & ~signatureMask1) == 0L)
+      return true;
+    prefilterRejections.increment();
+    return false;
+  }
+
+  /**
+   * @return the number of subsumption tests that have been passed to the prefilter since the last reset
+   */
+  public static final long getPrefilterTests() {
+    return prefilterTests.sum();
+  }
+
+  /**
+   * @return the number of subsumption tests that have been answered negatively by the prefilter since the last reset
+   */
+  public static final long getPrefilterRejections() {
+    return prefilterRejections.sum();
+  }
+
+  public static final void resetPrefilterStatistics() {
+    prefilterTests.reset();
+    prefilterRejections.reset();
+  }
+
+  /**
+   * The result is memoized in the subsumption cache of the TBox, see {@link ELTBox#getSubsumptionCache()}. Since the
+   * classifier is queried without holding the lock of the TBox, the result is only stored if the concept inclusions
+   * have not been modified in the meantime.
+   */
   public static final boolean
       isSubsumedBy(final ELConceptDescription concept1, final ELConceptDescription concept2, final ELTBox tBox) {
-    return isSubsumedBy(concept1.toOWLClassExpression(), concept2.toOWLClassExpression(), tBox.toOWLOntology());
+    final ImmutableELConceptDescription C = concept1.intern();
+    final ImmutableELConceptDescription D = concept2.intern();
+    final Boolean cached = tBox.getSubsumptionCache().getIfPresent(C, D);
+    if (cached != null)
+      return cached;
+    // the version must be read before the classifier, since otherwise a result w.r.t. an outdated classifier could be
+    // stored with the version of a newer one
+    final long version = tBox.getVersion();
+    final boolean isSubsumedBy = tBox.getClassifier().isSubsumedBy(concept1, concept2);
+    tBox.cacheSubsumption(version, C, D, isSubsumedBy);
+    return isSubsumedBy;
   }
 
-  private static int dummy = 1618;
+  /**
+   * Batch variant of {@link #isSubsumedBy(ELConceptDescription, ELConceptDescription, ELTBox)}, which updates the
+   * classifier only once, see {@link ELClassifier#subsumptionMatrix(Collection)}.
+   */
+  public static final MatrixRelation<ELConceptDescription, ELConceptDescription>
+      subsumptionMatrix(final Collection<? extends ELConceptDescription> concepts, final ELTBox tBox) {
+    return tBox.getClassifier().subsumptionMatrix(concepts);
+  }
 
-  private static final int nextDummy() {
-    return dummy++;
+  public static final MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix(
+      final Collection<? extends ELConceptDescription> subsumees,
+      final Collection<? extends ELConceptDescription> subsumers,
+      final ELTBox tBox) {
+    return tBox.getClassifier().subsumptionMatrix(subsumees, subsumers);
   }
 
+  public static final MatrixRelation<ELConceptDescription, ELConceptDescription> pairwiseSubsumptionMatrix(
+      final Collection<? extends Entry<? extends ELConceptDescription, ? extends ELConceptDescription>> pairs,
+      final ELTBox tBox) {
+    return tBox.getClassifier().pairwiseSubsumptionMatrix(pairs);
+  }
+
+  /**
+   * The reasoning sessions of the ontologies that have been queried so far. A session is closed and discarded as soon
+   * as its ontology is modified, or when the ontology is no longer referenced elsewhere.
+   */
+  private static final Cache<OWLOntology, ELReasoningSession> sessions            = CacheBuilder
+      .newBuilder()
+      .weakKeys()
+      .removalListener((RemovalNotification<OWLOntology, ELReasoningSession> removal) -> removal.getValue().close())
+      .build();
+  /**
+   * the managers whose ontology changes are observed by {@link #sessionInvalidator}
+   */
+  private static final Set<OWLOntologyManager>                observedManagers    =
+      Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+  private static final OWLOntologyChangeListener              sessionInvalidator  =
+      changes -> changes.forEach(change -> sessions.invalidate(change.getOntology()));
+
+  /**
+   * @return the cached reasoning session of the given ontology, which is created if the ontology has not been queried
+   *         before or has been modified since
+   */
+  private static final ELReasoningSession getReasoningSession(final OWLOntology ontology) {
+    final OWLOntologyManager manager = ontology.getOWLOntologyManager();
+    // the listener must be registered before the session takes its copy of the ontology
+    synchronized (observedManagers) {
+      if (observedManagers.add(manager))
+        manager.addOntologyChangeListener(sessionInvalidator);
+    }
+    return sessions.asMap().computeIfAbsent(ontology, ELReasoningSession::new);
+  }
+
+  /**
+   * The query is answered by a reasoning session of the ontology, which is kept until the ontology is modified, see
+   * {@link ELReasoningSession}. Hence subsequent queries w.r.t. the same ontology only cause incremental updates of
+   * the reasoner, and the ontology itself is never modified. The ontology must not be modified while a query is
+   * answered.
+   */
   public static final boolean
       isSubsumedBy(final OWLClassExpression concept1, final OWLClassExpression concept2, final OWLOntology ontology) {
-    final OWLOntologyManager om = OWLManager.createOWLOntologyManager();
-    final OWLDataFactory df = OWLManager.getOWLDataFactory();
-
-    final OWLClass c1 = df.getOWLClass(IRI.create("dummy" + nextDummy()));
-    final OWLClass c2 = df.getOWLClass(IRI.create("dummy" + nextDummy()));
-    final OWLSubClassOfAxiom ax1 = df.getOWLSubClassOfAxiom(concept1, c1);
-    final OWLSubClassOfAxiom _ax1 = df.getOWLSubClassOfAxiom(c1, concept1);
-    final OWLSubClassOfAxiom ax2 = df.getOWLSubClassOfAxiom(c2, concept2);
-    final OWLSubClassOfAxiom _ax2 = df.getOWLSubClassOfAxiom(concept2, c2);
-    om.applyChange(new AddAxiom(ontology, ax1));
-    om.applyChange(new AddAxiom(ontology, ax2));
-    om.applyChange(new AddAxiom(ontology, _ax1));
-    om.applyChange(new AddAxiom(ontology, _ax2));
-
-    final OWLReasoner reasoner = new ElkReasonerFactory().createReasoner(ontology);
-//    final OWLReasoner reasoner = new JcelReasonerFactory().createReasoner(ontology);
-    reasoner.flush();
-    reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
-
-    final boolean result =
-        reasoner.getEquivalentClasses(c2).contains(c1) || reasoner.getSubClasses(c2, false).getFlattened().contains(c1);
-    reasoner.dispose();
-    om.applyChange(new RemoveAxiom(ontology, ax1));
-    om.applyChange(new RemoveAxiom(ontology, ax2));
-    om.applyChange(new RemoveAxiom(ontology, _ax1));
-    om.applyChange(new RemoveAxiom(ontology, _ax2));
-    return result;
-//    return elk.isEntailed(df.getOWLSubClassOfAxiom(concept1, concept2));
+    return getReasoningSession(ontology).isSubsumedBy(concept1, concept2);
   }
 
+  /**
+   * Like {@link #isSubsumedBy(OWLClassExpression, OWLClassExpression, OWLOntology)}.
+   */
   public static final boolean isSubsumedBy(
       final ELConceptDescription concept1,
       final ELConceptDescription concept2,
       final OWLOntology ontology) {
-    return isSubsumedBy(concept1.toOWLClassExpression(), concept2.toOWLClassExpression(), ontology);
+    return getReasoningSession(ontology).isSubsumedBy(concept1, concept2);
   }
 
 }
@@ -0,0 +1,245 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.semanticweb.elk.owlapi.ElkReasonerFactory;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.AddAxiom;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import conexp.fx.core.collections.relation.MatrixRelation;
+import conexp.fx.core.collections.setlist.SetList;
+import conexp.fx.core.collections.setlist.SetLists;
+
+/**
+ * A long-lived ELK reasoner that answers subsumption queries w.r.t. a fixed ontology. Every query concept is
+ * registered only once, namely by an equivalence axiom with a fresh dummy class, and all registrations that are
+ * pending when a query arrives are handed over to the reasoner in a single change set, which ELK then processes
+ * incrementally. Hence a sequence of queries costs one classification of the ontology plus one incremental update per
+ * batch of new query concepts, instead of one full classification per query.
+ * {@link ELReasoner#isSubsumedBy(OWLClassExpression, OWLClassExpression, OWLOntology)} keeps one session per ontology
+ * until the ontology is modified.
+ *
+ * All methods are synchronized, since the reasoner must not be queried while it is being updated, i.e., a session
+ * can be shared by several threads. The dummy axioms are added to a private copy of the given ontology, i.e.,
+ * neither the given ontology is modified nor do later modifications of it affect the session.
+ */
+public final class ELReasoningSession implements AutoCloseable {
+
+  private final OWLOntology                                  ontology;
+  private final OWLDataFactory                               df;
+  private final OWLReasoner                                  reasoner;
+  private final String                                       prefix;
+  private final Map<OWLClassExpression, OWLClass>            dummies  = new HashMap<>();
+  private final Map<ImmutableELConceptDescription, OWLClass> concepts = new HashMap<>();
+  private final List<OWLOntologyChange>                      pending  = new ArrayList<>();
+  private boolean                                            closed   = false;
+
+  /**
+   * Creates a session w.r.t. a copy of the given ontology, which is taken now.
+   */
+  public ELReasoningSession(final OWLOntology ontology) {
+    super();
+    try {
+      this.ontology = OWLManager.createOWLOntologyManager().createOntology(ontology.axioms());
+    } catch (OWLOntologyCreationException e) {
+      throw new RuntimeException(e);
+    }
+    this.df = this.ontology.getOWLOntologyManager().getOWLDataFactory();
+    this.reasoner = new ElkReasonerFactory().createReasoner(this.ontology);
+    this.prefix = IRI.generateDocumentIRI().toString() + "#dummy";
+  }
+
+  private final OWLClass register(final OWLClassExpression concept) {
+    final OWLClass registered = dummies.get(concept);
+    if (registered != null)
+      return registered;
+    final OWLClass dummy = df.getOWLClass(IRI.create(prefix + dummies.size()));
+    pending.add(new AddAxiom(ontology, df.getOWLSubClassOfAxiom(concept, dummy)));
+    pending.add(new AddAxiom(ontology, df.getOWLSubClassOfAxiom(dummy, concept)));
+    dummies.put(concept, dummy);
+    return dummy;
+  }
+
+  private final OWLClass register(final ELConceptDescription concept) {
+    final ImmutableELConceptDescription key = concept.intern();
+    final OWLClass registered = concepts.get(key);
+    if (registered != null)
+      return registered;
+    final OWLClass dummy = register(concept.toOWLClassExpression());
+    concepts.put(key, dummy);
+    return dummy;
+  }
+
+  private final void classify() {
+    if (closed)
+      throw new IllegalStateException("The reasoning session has already been closed.");
+    if (pending.isEmpty())
+      return;
+    ontology.getOWLOntologyManager().applyChanges(pending);
+    pending.clear();
+    reasoner.flush();
+    reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+  }
+
+  private final boolean isSubsumedBy(final OWLClass dummy1, final OWLClass dummy2) {
+    classify();
+    final Node<OWLClass> equivalentClasses = reasoner.getEquivalentClasses(dummy1);
+    return equivalentClasses.isBottomNode() || equivalentClasses.contains(dummy2)
+        || reasoner.getSuperClasses(dummy1, false).containsEntity(dummy2);
+  }
+
+  /**
+   * must only be called after {@link #classify()}
+   */
+  private final Predicate<OWLClass> subsumersOf(final OWLClass dummy) {
+    final Node<OWLClass> equivalentClasses = reasoner.getEquivalentClasses(dummy);
+    if (equivalentClasses.isBottomNode())
+      return __ -> true;
+    final Set<OWLClass> subsumers =
+        reasoner.getSuperClasses(dummy, false).entities().collect(Collectors.toCollection(HashSet::new));
+    equivalentClasses.entities().forEach(subsumers::add);
+    return subsumers::contains;
+  }
+
+  public final synchronized boolean
+      isSubsumedBy(final OWLClassExpression concept1, final OWLClassExpression concept2) {
+    return isSubsumedBy(register(concept1), register(concept2));
+  }
+
+  public final synchronized boolean
+      isSubsumedBy(final ELConceptDescription concept1, final ELConceptDescription concept2) {
+    return isSubsumedBy(register(concept1), register(concept2));
+  }
+
+  /**
+   * Registers all given concept descriptions at once, such that the reasoner is updated only once, and then reads off
+   * their subsumption relationships from the taxonomy. The concept descriptions must not be modified as long as the
+   * returned matrix is in use, since they are its row and column heads.
+   * 
+   * @return the matrix that contains (C, D) if, and only if, C is subsumed by D
+   */
+  public final synchronized MatrixRelation<ELConceptDescription, ELConceptDescription>
+      subsumptionMatrix(final Collection<? extends ELConceptDescription> concepts) {
+    final SetList<ELConceptDescription> heads = SetLists.create(concepts);
+    final MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix =
+        new MatrixRelation<>(heads, heads, true);
+    fill(subsumptionMatrix);
+    return subsumptionMatrix;
+  }
+
+  /**
+   * Like {@link #subsumptionMatrix(Collection)}, but only compares each of the given subsumees with each of the given
+   * subsumers.
+   * 
+   * @return the matrix that contains (C, D) if, and only if, the subsumee C is subsumed by the subsumer D
+   */
+  public final synchronized MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix(
+      final Collection<? extends ELConceptDescription> subsumees,
+      final Collection<? extends ELConceptDescription> subsumers) {
+    final MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix =
+        new MatrixRelation<>(SetLists.create(subsumees), SetLists.create(subsumers), false);
+    fill(subsumptionMatrix);
+    return subsumptionMatrix;
+  }
+
+  private final void fill(final MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix) {
+    final List<OWLClass> subsumees = new ArrayList<>(subsumptionMatrix.rowHeads().size());
+    for (ELConceptDescription C : subsumptionMatrix.rowHeads())
+      subsumees.add(register(C));
+    final List<OWLClass> subsumers = new ArrayList<>(subsumptionMatrix.colHeads().size());
+    for (ELConceptDescription D : subsumptionMatrix.colHeads())
+      subsumers.add(register(D));
+    classify();
+    // the heads are indexed in iteration order, hence the matrix can be filled without looking up any head
+    for (int i = 0; i < subsumees.size(); i++) {
+      final Predicate<OWLClass> subsumersOfC = subsumersOf(subsumees.get(i));
+      for (int j = 0; j < subsumers.size(); j++)
+        if (subsumersOfC.test(subsumers.get(j)))
+          subsumptionMatrix.matrix().setBoolean(true, i, j);
+    }
+  }
+
+  /**
+   * Like {@link #subsumptionMatrix(Collection)}, but only the given pairs are tested.
+   * 
+   * @return the matrix whose row heads are the subsumees and whose column heads are the subsumers of the given pairs,
+   *         and which contains the pair (C, D) if, and only if, it is given and C is subsumed by D
+   */
+  public final synchronized MatrixRelation<ELConceptDescription, ELConceptDescription> pairwiseSubsumptionMatrix(
+      final Collection<? extends Entry<? extends ELConceptDescription, ? extends ELConceptDescription>> pairs) {
+    final Map<ELConceptDescription, Set<ELConceptDescription>> subsumersBySubsumee = new HashMap<>();
+    final Set<ELConceptDescription> subsumers = new HashSet<>();
+    for (Entry<? extends ELConceptDescription, ? extends ELConceptDescription> pair : pairs) {
+      subsumersBySubsumee.computeIfAbsent(pair.getKey(), __ -> new HashSet<>()).add(pair.getValue());
+      subsumers.add(pair.getValue());
+    }
+    final MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix =
+        new MatrixRelation<>(SetLists.create(subsumersBySubsumee.keySet()), SetLists.create(subsumers), false);
+    for (ELConceptDescription C : subsumersBySubsumee.keySet())
+      register(C);
+    for (ELConceptDescription D : subsumers)
+      register(D);
+    classify();
+    for (Entry<ELConceptDescription, Set<ELConceptDescription>> entry : subsumersBySubsumee.entrySet()) {
+      final Predicate<OWLClass> subsumersOfC = subsumersOf(register(entry.getKey()));
+      for (ELConceptDescription D : entry.getValue())
+        if (subsumersOfC.test(register(D)))
+          subsumptionMatrix.addFastSilent(entry.getKey(), D);
+    }
+    return subsumptionMatrix;
+  }
+
+  /**
+   * Disposes the reasoner. The copy of the ontology, which holds the dummy axioms, is discarded with this session.
+   */
+  @Override
+  public final synchronized void close() {
+    if (closed)
+      return;
+    closed = true;
+    reasoner.dispose();
+    pending.clear();
+  }
+
+}
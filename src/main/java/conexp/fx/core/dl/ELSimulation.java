@@ -0,0 +1,161 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+
+import conexp.fx.core.collections.BitSetFX;
+
+/**
+ * The maximal simulation between the description trees of two concept descriptions, computed bottom-up by dynamic
+ * programming. Since the description trees are given as interned (and thus maximally shared) nodes, each distinct
+ * sub-description is only visited once, and the whole computation takes time polynomial in the sizes of both
+ * concept descriptions. A node n2 of the second tree is simulated by a node n1 of the first tree iff n1 is subsumed
+ * by n2, i.e., the simulation answers the subsumption question for all pairs of sub-descriptions at once.
+ */
+public final class ELSimulation {
+
+  private static final IRI THING = OWLManager.getOWLDataFactory().getOWLThing().getIRI();
+
+  public static final ELSimulation
+      of(final ImmutableELConceptDescription concept1, final ImmutableELConceptDescription concept2) {
+    return new ELSimulation(concept1, concept2);
+  }
+
+  /**
+   * @return true, iff concept1 is subsumed by concept2 (w.r.t. empty TBox)
+   */
+  public static final boolean
+      isSubsumedBy(final ImmutableELConceptDescription concept1, final ImmutableELConceptDescription concept2) {
+    if (concept1 == concept2 || concept1.isBot() || concept2.isTop())
+      return true;
+    return of(concept1, concept2).isSubsumedBy();
+  }
+
+  private final ImmutableELConceptDescription               concept1;
+  private final ImmutableELConceptDescription               concept2;
+  private final List<ImmutableELConceptDescription>         nodes1 = new ArrayList<>();
+  private final List<ImmutableELConceptDescription>         nodes2 = new ArrayList<>();
+  private final Map<ImmutableELConceptDescription, Integer> index1 = new IdentityHashMap<>();
+  private final Map<ImmutableELConceptDescription, Integer> index2 = new IdentityHashMap<>();
+  /**
+   * simulation[j] contains i iff nodes1[i] is subsumed by nodes2[j]
+   */
+  private final BitSetFX[]                                  simulation;
+
+  private ELSimulation(final ImmutableELConceptDescription concept1, final ImmutableELConceptDescription concept2) {
+    super();
+    this.concept1 = concept1;
+    this.concept2 = concept2;
+    collect(concept1, nodes1, index1);
+    collect(concept2, nodes2, index2);
+    this.simulation = new BitSetFX[nodes2.size()];
+    // nodes are in post-order, i.e., all fillers of a node have been processed before the node itself
+    for (int j = 0; j < nodes2.size(); j++) {
+      final ImmutableELConceptDescription node2 = nodes2.get(j);
+      final BitSetFX simulators = new BitSetFX(nodes1.size());
+      for (int i = 0; i < nodes1.size(); i++)
+        if (simulates(nodes1.get(i), node2))
+          simulators.set(i);
+      simulation[j] = simulators;
+    }
+  }
+
+  private static final void collect(
+      final ImmutableELConceptDescription node,
+      final List<ImmutableELConceptDescription> nodes,
+      final Map<ImmutableELConceptDescription, Integer> index) {
+    if (index.containsKey(node))
+      return;
+    for (ImmutableELConceptDescription filler : node.getExistentialRestrictions().values())
+      collect(filler, nodes, index);
+    index.put(node, nodes.size());
+    nodes.add(node);
+  }
+
+  private final boolean
+      simulates(final ImmutableELConceptDescription node1, final ImmutableELConceptDescription node2) {
+    if (node1.isBot())
+      return true;
+    for (IRI A : node2.getConceptNames())
+      if (!A.equals(THING) && !node1.getConceptNames().contains(A))
+        return false;
+    if (!node1.getDataValues().entries().containsAll(node2.getDataValues().entries()))
+      return false;
+    for (Entry<IRI, ImmutableELConceptDescription> existentialRestriction2 : node2
+        .getExistentialRestrictions()
+        .entries()) {
+      final BitSetFX simulators = simulation[index2.get(existentialRestriction2.getValue())];
+      boolean found = false;
+      for (ImmutableELConceptDescription filler1 : node1
+          .getExistentialRestrictions()
+          .get(existentialRestriction2.getKey()))
+        if (simulators.get(index1.get(filler1))) {
+          found = true;
+          break;
+        }
+      if (!found)
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return true, iff the first concept description is subsumed by the second one
+   */
+  public final boolean isSubsumedBy() {
+    return holds(concept1, concept2);
+  }
+
+  /**
+   * @param node1
+   *          a sub-description of the first concept description
+   * @param node2
+   *          a sub-description of the second concept description
+   * @return true, iff node1 is subsumed by node2
+   */
+  public final boolean holds(final ImmutableELConceptDescription node1, final ImmutableELConceptDescription node2) {
+    final Integer i = index1.get(node1);
+    final Integer j = index2.get(node2);
+    if (i == null || j == null)
+      throw new IllegalArgumentException();
+    return simulation[j].get(i);
+  }
+
+  /**
+   * Stores the answers for all pairs of sub-descriptions in the given cache.
+   */
+  public final void cacheInto(final ELSubsumptionCache cache) {
+    for (int j = 0; j < nodes2.size(); j++)
+      for (int i = 0; i < nodes1.size(); i++)
+        cache.put(nodes1.get(i), nodes2.get(j), simulation[j].get(i));
+  }
+
+}
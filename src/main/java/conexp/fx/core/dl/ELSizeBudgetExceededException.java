@@ -0,0 +1,58 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+/**
+ * Thrown by a size-budgeted computation, e.g., {@link ELLeastCommonSubsumer#lcs(java.util.Set, int, int)}, as soon as
+ * a concept description that is built during the computation is larger than the budget. The constructors are not
+ * public on purpose, since otherwise a fork/join pool would re-create the exception and lose its fields when it is
+ * thrown within a parallel stream.
+ */
+public class ELSizeBudgetExceededException extends RuntimeException {
+
+  private static final long serialVersionUID = -4271564062478431658L;
+
+  private final int         sizeBudget;
+  private final int         size;
+
+  ELSizeBudgetExceededException(final int sizeBudget, final int size) {
+    super("The size " + size + " exceeds the budget " + sizeBudget + ".");
+    this.sizeBudget = sizeBudget;
+    this.size = size;
+  }
+
+  /**
+   * @return the budget that has been exceeded
+   */
+  public final int getSizeBudget() {
+    return sizeBudget;
+  }
+
+  /**
+   * @return the size of the concept description that exceeded the budget
+   */
+  public final int getSize() {
+    return size;
+  }
+
+}
@@ -0,0 +1,173 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.function.BooleanSupplier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import conexp.fx.core.collections.Pair;
+
+/**
+ * A bounded, thread-safe memo of structural subsumption results (w.r.t. the empty TBox). Keys are pairs of interned
+ * concept descriptions, i.e., the cache is insensitive to later modifications of the mutable descriptions that were
+ * queried. Which instance is used by {@link ELReasoner} is determined by the configured {@link Scope}. Furthermore,
+ * each {@link ELTBox} has its own instance for the subsumption results w.r.t. it.
+ */
+public final class ELSubsumptionCache {
+
+  public enum Scope {
+    /**
+     * a fresh cache for each top-level subsumption test, shared by all of its recursive sub-tests
+     */
+    CALL,
+    /**
+     * one cache per calling thread, kept across calls
+     */
+    THREAD,
+    /**
+     * one process-wide cache with a least-recently-used eviction policy
+     */
+    GLOBAL
+  }
+
+  public static final long                             DEFAULT_CALL_MAXIMUM_SIZE   = 1 << 14;
+  public static final long                             DEFAULT_THREAD_MAXIMUM_SIZE = 1 << 16;
+  public static final long                             DEFAULT_GLOBAL_MAXIMUM_SIZE = 1 << 18;
+  public static final long                             DEFAULT_TBOX_MAXIMUM_SIZE   = 1 << 16;
+
+  private static volatile Scope                        scope                       = Scope.GLOBAL;
+  private static volatile ELSubsumptionCache           global                      =
+      new ELSubsumptionCache(DEFAULT_GLOBAL_MAXIMUM_SIZE);
+  private static final ThreadLocal<ELSubsumptionCache> perThread                   =
+      ThreadLocal.withInitial(() -> new ELSubsumptionCache(DEFAULT_THREAD_MAXIMUM_SIZE));
+
+  public static final Scope getScope() {
+    return scope;
+  }
+
+  public static final void setScope(final Scope scope) {
+    if (scope == null)
+      throw new NullPointerException();
+    ELSubsumptionCache.scope = scope;
+  }
+
+  /**
+   * Replaces the process-wide cache by an empty one with the given size limit.
+   */
+  public static final void setGlobalMaximumSize(final long maximumSize) {
+    global = new ELSubsumptionCache(maximumSize);
+  }
+
+  public static final ELSubsumptionCache global() {
+    return global;
+  }
+
+  public static final ELSubsumptionCache perThread() {
+    return perThread.get();
+  }
+
+  /**
+   * @return the cache that is to be used for a top-level subsumption test issued by the current thread, according to
+   *         the configured scope
+   */
+  public static final ELSubsumptionCache current() {
+    switch (scope) {
+    case GLOBAL:
+      return global;
+    case THREAD:
+      return perThread.get();
+    case CALL:
+    default:
+      return new ELSubsumptionCache(DEFAULT_CALL_MAXIMUM_SIZE);
+    }
+  }
+
+  private final Cache<Pair<ImmutableELConceptDescription, ImmutableELConceptDescription>, Boolean> cache;
+
+  public ELSubsumptionCache(final long maximumSize) {
+    super();
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  /**
+   * @return the cached answer to the question whether concept1 is subsumed by concept2, which is computed by the given
+   *         supplier (and then cached) if not present
+   */
+  public final boolean isSubsumedBy(
+      final ImmutableELConceptDescription concept1,
+      final ImmutableELConceptDescription concept2,
+      final BooleanSupplier supplier) {
+    final Pair<ImmutableELConceptDescription, ImmutableELConceptDescription> key = Pair.of(concept1, concept2);
+    final Boolean cached = cache.getIfPresent(key);
+    if (cached != null)
+      return cached;
+    // the supplier recursively accesses this cache, hence it must not run within a loader of the underlying cache
+    final boolean result = supplier.getAsBoolean();
+    cache.put(key, result);
+    return result;
+  }
+
+  /**
+   * @return the cached answer to the question whether concept1 is subsumed by concept2, or null if not present
+   */
+  public final Boolean
+      getIfPresent(final ImmutableELConceptDescription concept1, final ImmutableELConceptDescription concept2) {
+    return cache.getIfPresent(Pair.of(concept1, concept2));
+  }
+
+  public final void put(
+      final ImmutableELConceptDescription concept1,
+      final ImmutableELConceptDescription concept2,
+      final boolean isSubsumedBy) {
+    cache.put(Pair.of(concept1, concept2), isSubsumedBy);
+  }
+
+  /**
+   * Removes all negative results, e.g., after concept inclusions have been added to the TBox w.r.t. which the results
+   * have been computed, since all positive results are still valid then.
+   */
+  public final void invalidateNonSubsumptions() {
+    cache.asMap().values().removeIf(isSubsumedBy -> !isSubsumedBy);
+  }
+
+  public final CacheStats stats() {
+    return cache.stats();
+  }
+
+  public final long size() {
+    return cache.size();
+  }
+
+  public final void clear() {
+    cache.invalidateAll();
+  }
+
+  @Override
+  public final String toString() {
+    return "EL subsumption cache of size " + cache.size() + " with " + cache.stats();
+  }
+
+}
@@ -25,26 +25,218 @@ import java.util.HashMap;
  * #L%
  */
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.stream.Collectors;
 
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 
+import com.google.common.collect.ForwardingIterator;
+import com.google.common.collect.ForwardingSet;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.SetMultimap;
+
+import conexp.fx.core.collections.BitSetFX;
 import conexp.fx.core.collections.relation.MatrixRelation;
+import conexp.fx.core.collections.setlist.SetList;
+import conexp.fx.core.collections.setlist.SetLists;
 
 public class ELTBox {
 
+  private static final IRI              THING   = OWLManager.getOWLDataFactory().getOWLThing().getIRI();
   private static final IRI              NOTHING = OWLManager.getOWLDataFactory().getOWLNothing().getIRI();
 
   private final Set<ELConceptInclusion> conceptInclusions;
+  private final ELSubsumptionCache      subsumptionCache;
+  private long                          version = 0;
+  private ELClassifier                  classifier;
+  private long                          classifierVersion;
+  private OWLOntology                   ontology;
+  private long                          ontologyVersion;
 
   public ELTBox() {
     super();
-    this.conceptInclusions = new HashSet<>();
+    this.conceptInclusions = new ConceptInclusionSet();
+    this.subsumptionCache = new ELSubsumptionCache(ELSubsumptionCache.DEFAULT_TBOX_MAXIMUM_SIZE);
+  }
+
+  /**
+   * A hash set that notifies the enclosing TBox of each modification. All modifications and the version update that
+   * they entail happen atomically under the lock of the TBox, which is also held while the classifier reads the
+   * concept inclusions. Iterating over the concept inclusions while they may
+   * be modified by another thread must be synchronized on the TBox as well.
+   */
+  private final class ConceptInclusionSet extends ForwardingSet<ELConceptInclusion> {
+
+    private final Set<ELConceptInclusion> delegate = new HashSet<>();
+
+    @Override
+    protected Set<ELConceptInclusion> delegate() {
+      return delegate;
+    }
+
+    @Override
+    public int size() {
+      synchronized (ELTBox.this) {
+        return delegate.size();
+      }
+    }
+
+    @Override
+    public boolean isEmpty() {
+      synchronized (ELTBox.this) {
+        return delegate.isEmpty();
+      }
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+      synchronized (ELTBox.this) {
+        return delegate.contains(object);
+      }
+    }
+
+    @Override
+    public boolean add(final ELConceptInclusion conceptInclusion) {
+      synchronized (ELTBox.this) {
+        if (!delegate.add(conceptInclusion))
+          return false;
+        modified(false);
+        return true;
+      }
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends ELConceptInclusion> collection) {
+      synchronized (ELTBox.this) {
+        if (!delegate.addAll(collection))
+          return false;
+        modified(false);
+        return true;
+      }
+    }
+
+    @Override
+    public boolean remove(final Object object) {
+      synchronized (ELTBox.this) {
+        if (!delegate.remove(object))
+          return false;
+        modified(true);
+        return true;
+      }
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> collection) {
+      synchronized (ELTBox.this) {
+        if (!delegate.removeAll(collection))
+          return false;
+        modified(true);
+        return true;
+      }
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> collection) {
+      synchronized (ELTBox.this) {
+        if (!delegate.retainAll(collection))
+          return false;
+        modified(true);
+        return true;
+      }
+    }
+
+    @Override
+    public void clear() {
+      synchronized (ELTBox.this) {
+        if (delegate.isEmpty())
+          return;
+        delegate.clear();
+        modified(true);
+      }
+    }
+
+    @Override
+    public Iterator<ELConceptInclusion> iterator() {
+      final Iterator<ELConceptInclusion> iterator = delegate.iterator();
+      return new ForwardingIterator<ELConceptInclusion>() {
+
+        @Override
+        protected Iterator<ELConceptInclusion> delegate() {
+          return iterator;
+        }
+
+        @Override
+        public void remove() {
+          synchronized (ELTBox.this) {
+            iterator.remove();
+            modified(true);
+          }
+        }
+      };
+    }
+
+    @Override
+    public Spliterator<ELConceptInclusion> spliterator() {
+      return delegate.spliterator();
+    }
+
+  }
+
+  /**
+   * Increments the version. Since adding concept inclusions can only add subsumptions, the cached subsumptions are
+   * kept in this case, and only the cached non-subsumptions are dropped.
+   */
+  private final synchronized void modified(final boolean removal) {
+    version++;
+    if (removal)
+      subsumptionCache.clear();
+    else
+      subsumptionCache.invalidateNonSubsumptions();
+  }
+
+  /**
+   * @return the number of modifications of the set of concept inclusions so far
+   */
+  public final synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * The cached answers are kept consistent with the concept inclusions as long as these are only added or removed,
+   * however the concept descriptions within the concept inclusions must not be modified.
+   * 
+   * @return the memo of subsumption results w.r.t. this TBox, which also reports its hit rate
+   */
+  public final ELSubsumptionCache getSubsumptionCache() {
+    return subsumptionCache;
+  }
+
+  /**
+   * Stores the given subsumption result, which has been computed w.r.t. the given version, unless the concept
+   * inclusions have been modified since then. Checking the version and storing the result happen under the same lock
+   * as the modifications, such that a modification either precedes the check or invalidates the stored result.
+   */
+  final synchronized void cacheSubsumption(
+      final long version,
+      final ImmutableELConceptDescription concept1,
+      final ImmutableELConceptDescription concept2,
+      final boolean isSubsumedBy) {
+    if (this.version == version)
+      subsumptionCache.put(concept1, concept2, isSubsumedBy);
   }
 
   public final Signature getSignature() {
@@ -62,69 +254,300 @@ public class ELTBox {
     return conceptInclusions;
   }
 
+  /**
+   * The returned classifier answers subsumption queries w.r.t. this TBox and is shared by all callers. It is replaced
+   * by a new classifier as soon as concept inclusions have been added or removed, however the concept descriptions
+   * within the concept inclusions must not be modified while the classifier is in use.
+   * 
+   * @return the classifier for the current concept inclusions of this TBox
+   */
+  public final synchronized ELClassifier getClassifier() {
+    if (classifier == null || classifierVersion != version) {
+      classifierVersion = version;
+      classifier = new ELClassifier(this);
+    }
+    return classifier;
+  }
+
+  /**
+   * Saturates the description graph of C w.r.t. the concept inclusions by means of a worklist. Each element carries the
+   * concept inclusions that have to be rechecked for it, namely those whose premise mentions a concept name or role
+   * name that has been added to the element or to one of its successors at the according role depth, and those whose
+   * premise is equivalent to top when it is created. The elements are numbered, and the canonical model is only
+   * assembled after the saturation, since each lookup of an element in a {@link MatrixRelation} compares it with all
+   * other elements.
+   */
   private final class CanonicalModelBuilder {
 
-    private final ELConceptDescription                    C;
-    private final ELInterpretation2<ELConceptDescription> canmod;
+    private final ELConceptDescription               C;
+    private final ELConceptInclusion[]               inclusions;
+    private final List<Map<IRI, BitSetFX>>           inclusionsMentioningAt  = new ArrayList<>();
+    private final BitSetFX                           unconditionalInclusions = new BitSetFX();
+    private final Map<ELConceptDescription, Integer> indices                 = new HashMap<>();
+    private final List<ELConceptDescription>         elements                = new ArrayList<>();
+    private final List<Set<IRI>>                     labels                  = new ArrayList<>();
+    private final List<SetMultimap<IRI, Integer>>    successors              = new ArrayList<>();
+    private final List<Set<Integer>>                 predecessors            = new ArrayList<>();
+    private final List<BitSetFX>                     pending                 = new ArrayList<>();
+    private final Deque<Integer>                     worklist                = new ArrayDeque<>();
 
     private CanonicalModelBuilder(final ELConceptDescription C) {
       super();
       this.C = C;
-      this.canmod = new ELInterpretation2<>();
+      this.inclusions = conceptInclusions.toArray(new ELConceptInclusion[conceptInclusions.size()]);
+      for (int i = 0; i < inclusions.length; i++) {
+        if (inclusions[i].getSubsumee().isTop())
+          unconditionalInclusions.set(i);
+        else
+          index(i, inclusions[i].getSubsumee(), 0);
+      }
     }
 
-    private final void insert(final ELConceptDescription D) {
-      insert(D, D);
+    /**
+     * Registers the i-th concept inclusion for all concept names and role names that occur in its premise, where
+     * inclusionsMentioningAt.get(k) contains the names that occur at role depth k.
+     */
+    private final void index(final int i, final ELConceptDescription D, final int k) {
+      if (inclusionsMentioningAt.size() == k)
+        inclusionsMentioningAt.add(new HashMap<>());
+      final Map<IRI, BitSetFX> inclusionsMentioning = inclusionsMentioningAt.get(k);
+      for (IRI A : D.getConceptNames())
+        inclusionsMentioning.computeIfAbsent(A, __ -> new BitSetFX()).set(i);
+      for (Entry<IRI, ELConceptDescription> rE : D.getExistentialRestrictions().entries()) {
+        inclusionsMentioning.computeIfAbsent(rE.getKey(), __ -> new BitSetFX()).set(i);
+        index(i, rE.getValue(), k + 1);
+      }
     }
 
-    private final void insert(final ELConceptDescription X, final ELConceptDescription D) {
+    private final int insert(final ELConceptDescription D) {
+      final Integer index = indices.get(D);
+      if (index != null)
+        return index;
+      final int x = elements.size();
+      indices.put(D, x);
+      elements.add(D);
+      labels.add(new HashSet<>());
+      successors.add(HashMultimap.create());
+      predecessors.add(new HashSet<>());
+      pending.add(new BitSetFX());
+      schedule(x, unconditionalInclusions);
+      insert(x, D);
+      return x;
+    }
+
+    private final void insert(final int x, final ELConceptDescription D) {
+      final Set<IRI> addedNames = new HashSet<>();
       for (IRI A : D.getConceptNames())
-        canmod.getConceptNameExtensionMatrix().add(X, A);
+        if (labels.get(x).add(A))
+          addedNames.add(A);
       for (Entry<IRI, ELConceptDescription> rE : D.getExistentialRestrictions().entries()) {
-        canmod.getRoleNameExtensionMatrix(rE.getKey()).add(X, rE.getValue());
-        insert(rE.getValue());
+        final int y = insert(rE.getValue());
+        if (successors.get(x).put(rE.getKey(), y)) {
+          predecessors.get(y).add(x);
+          addedNames.add(rE.getKey());
+        }
       }
+      if (!addedNames.isEmpty())
+        modified(x, addedNames);
+    }
+
+    /**
+     * Schedules the concept inclusions whose premise mentions one of the added names at role depth k for each element
+     * from which x is reachable by a path of length k, since only their satisfaction can have been affected.
+     */
+    private final void modified(final int x, final Set<IRI> addedNames) {
+      Set<Integer> layer = Collections.singleton(x);
+      for (int k = 0; k < inclusionsMentioningAt.size() && !layer.isEmpty(); k++) {
+        final BitSetFX inclusionsToCheck = new BitSetFX();
+        for (IRI name : addedNames)
+          if (inclusionsMentioningAt.get(k).containsKey(name))
+            inclusionsToCheck.or(inclusionsMentioningAt.get(k).get(name));
+        final Set<Integer> nextLayer = new HashSet<>();
+        for (int y : layer) {
+          if (!inclusionsToCheck.isEmpty())
+            schedule(y, inclusionsToCheck);
+          nextLayer.addAll(predecessors.get(y));
+        }
+        layer = nextLayer;
+      }
+    }
+
+    private final void schedule(final int x, final BitSetFX inclusionsToCheck) {
+      final BitSetFX pendingOfX = pending.get(x);
+      if (pendingOfX.isEmpty())
+        worklist.push(x);
+      pendingOfX.or(inclusionsToCheck);
+    }
+
+    private final boolean isInstanceOf(final int x, final ELConceptDescription D) {
+      if (!D.getDataValues().isEmpty())
+        return false;
+      for (IRI A : D.getConceptNames())
+        if (!A.equals(THING) && !labels.get(x).contains(A))
+          return false;
+      for (Entry<IRI, ELConceptDescription> rE : D.getExistentialRestrictions().entries())
+        if (successors.get(x).get(rE.getKey()).stream().noneMatch(y -> isInstanceOf(y, rE.getValue())))
+          return false;
+      return true;
     }
 
     private final ELInterpretation2<ELConceptDescription> buildAndGet() {
       insert(C);
-      boolean changed = true;
-      while (changed) {
-        changed = false;
-        for (ELConceptInclusion ci : conceptInclusions)
-          for (ELConceptDescription o : new HashSet<>(canmod.getDomain())) {
-            final ELConceptDescription char1 =
-                canmod.getMostSpecificConceptDescription(Collections.singleton(o), ci.getSubsumee().roleDepth());
-            final ELConceptDescription char2 =
-                canmod.getMostSpecificConceptDescription(Collections.singleton(o), ci.getSubsumer().roleDepth());
-            if (char1.isSubsumedBy(ci.getSubsumee()) && !char2.isSubsumedBy(ci.getSubsumer())) {
-              insert(o, ci.getSubsumer());
-              changed = true;
-            }
-          }
-      }
-      changed = true;
-      while (changed) {
-        changed = false;
-        for (ELConceptDescription o : canmod.getDomain())
-          if (canmod.getConceptNameExtensionMatrix().contains(o, NOTHING))
-            for (MatrixRelation<ELConceptDescription, ELConceptDescription> r : canmod
-                .getRoleNameExtensionMatrixMap()
-                .values())
-              if (r.colHeads().contains(o))
-                for (ELConceptDescription p : r.col(o))
-                  changed |= canmod.add(p, NOTHING);
+      while (!worklist.isEmpty()) {
+        final int x = worklist.pop();
+        final BitSetFX inclusionsToCheck = pending.set(x, new BitSetFX());
+        // an inconsistent element is cleared below, hence it need not satisfy any concept inclusion
+        if (labels.get(x).contains(NOTHING))
+          continue;
+        for (int i = inclusionsToCheck.nextSetBit(0); i >= 0; i = inclusionsToCheck.nextSetBit(i + 1)) {
+          final ELConceptInclusion ci = inclusions[i];
+          if (isInstanceOf(x, ci.getSubsumee()) && !isInstanceOf(x, ci.getSubsumer()))
+            insert(x, ci.getSubsumer());
+        }
       }
-      for (ELConceptDescription o : canmod.getDomain())
-        if (canmod.getConceptNameExtensionMatrix().contains(o, NOTHING)) {
-          canmod.getConceptNameExtensionMatrix().row(o).retainAll(Collections.singleton(NOTHING));
-          for (MatrixRelation<ELConceptDescription, ELConceptDescription> r : canmod
-              .getRoleNameExtensionMatrixMap()
-              .values())
-            if (r.rowHeads().contains(o))
-              r.row(o).clear();
+      final Deque<Integer> inconsistent = new ArrayDeque<>();
+      for (int x = 0; x < elements.size(); x++)
+        if (labels.get(x).contains(NOTHING))
+          inconsistent.push(x);
+      while (!inconsistent.isEmpty())
+        for (int y : predecessors.get(inconsistent.pop()))
+          if (labels.get(y).add(NOTHING))
+            inconsistent.push(y);
+      for (int x = 0; x < elements.size(); x++)
+        if (labels.get(x).contains(NOTHING)) {
+          labels.get(x).retainAll(Collections.singleton(NOTHING));
+          successors.get(x).clear();
+        }
+      return assemble(elements, labels, successors);
+    }
+
+  }
+
+  /**
+   * Assembles the interpretation with the given numbered elements, their concept names, and their successors. The
+   * matrices are filled by index, i.e., without looking up any element, as their heads are indexed in iteration order.
+   */
+  private static final ELInterpretation2<ELConceptDescription> assemble(
+      final List<ELConceptDescription> elements,
+      final List<Set<IRI>> labels,
+      final List<SetMultimap<IRI, Integer>> successors) {
+    final List<Integer> labelled = new ArrayList<>();
+    final List<IRI> conceptNames = new ArrayList<>();
+    final Map<IRI, Integer> conceptNamePositions = new HashMap<>();
+    final Map<IRI, Set<Integer>> incident = new HashMap<>();
+    for (int x = 0; x < elements.size(); x++) {
+      if (!labels.get(x).isEmpty())
+        labelled.add(x);
+      for (IRI A : labels.get(x))
+        if (!conceptNamePositions.containsKey(A)) {
+          conceptNamePositions.put(A, conceptNames.size());
+          conceptNames.add(A);
         }
-      return this.canmod;
+      for (Entry<IRI, Integer> ry : successors.get(x).entries()) {
+        final Set<Integer> incidentToR = incident.computeIfAbsent(ry.getKey(), __ -> new LinkedHashSet<>());
+        incidentToR.add(x);
+        incidentToR.add(ry.getValue());
+      }
+    }
+    final MatrixRelation<ELConceptDescription, IRI> conceptNameExtensionMatrix = new MatrixRelation<>(
+        SetLists.create(Lists.transform(labelled, elements::get)),
+        SetLists.create(conceptNames),
+        false);
+    for (int i = 0; i < labelled.size(); i++)
+      for (IRI A : labels.get(labelled.get(i)))
+        conceptNameExtensionMatrix.matrix().setBoolean(true, i, conceptNamePositions.get(A));
+    final Map<IRI, MatrixRelation<ELConceptDescription, ELConceptDescription>> roleNameExtensionMatrix =
+        new HashMap<>();
+    for (Entry<IRI, Set<Integer>> e : incident.entrySet()) {
+      final List<Integer> incidentToR = new ArrayList<>(e.getValue());
+      final Map<Integer, Integer> positions = new HashMap<>();
+      for (int i = 0; i < incidentToR.size(); i++)
+        positions.put(incidentToR.get(i), i);
+      final SetList<ELConceptDescription> heads = SetLists.create(Lists.transform(incidentToR, elements::get));
+      final MatrixRelation<ELConceptDescription, ELConceptDescription> r = new MatrixRelation<>(heads, heads, true);
+      for (int i = 0; i < incidentToR.size(); i++)
+        for (int y : successors.get(incidentToR.get(i)).get(e.getKey()))
+          r.matrix().setBoolean(true, i, positions.get(y));
+      roleNameExtensionMatrix.put(e.getKey(), r);
+    }
+    return new ELInterpretation2<>(conceptNameExtensionMatrix, roleNameExtensionMatrix);
+  }
+
+  /**
+   * Builds the canonical model of C only up to the given role depth, i.e., the successors of an element are only
+   * created if its distance to C is smaller than the role depth. The concept names of an element and the concept
+   * inclusions that apply to it are determined by the classifier, which takes all successors into account, and thus
+   * the most specific concept description of C up to the role depth in this model is still the most specific
+   * consequence of C up to this role depth.
+   */
+  private final class BoundedCanonicalModelBuilder {
+
+    private final ELConceptDescription               C;
+    private final int                                roleDepth;
+    private final ELClassifier                       classifier;
+    private final Map<IRI, List<ELConceptInclusion>> inclusionsWithPremise = new HashMap<>();
+    private final List<ELConceptInclusion>           otherInclusions       = new ArrayList<>();
+    private final Map<ELConceptDescription, Integer> indices               = new HashMap<>();
+    private final List<ELConceptDescription>         elements              = new ArrayList<>();
+    private final List<Set<IRI>>                     labels                = new ArrayList<>();
+    private final List<SetMultimap<IRI, Integer>>    successors            = new ArrayList<>();
+
+    private BoundedCanonicalModelBuilder(final ELConceptDescription C, final int roleDepth) {
+      super();
+      if (roleDepth < 0)
+        throw new IllegalArgumentException();
+      this.C = C;
+      this.roleDepth = roleDepth;
+      this.classifier = getClassifier();
+      // the concept inclusions with a concept name as premise apply iff the concept name is in the label
+      for (ELConceptInclusion ci : conceptInclusions) {
+        final ELConceptDescription premise = ci.getSubsumee();
+        if (premise.getConceptNames().size() == 1 && premise.getExistentialRestrictions().isEmpty()
+            && premise.getDataValues().isEmpty() && !premise.getConceptNames().contains(THING))
+          inclusionsWithPremise
+              .computeIfAbsent(premise.getConceptNames().iterator().next(), __ -> new ArrayList<>())
+              .add(ci);
+        else
+          otherInclusions.add(ci);
+      }
+    }
+
+    private final int insert(final ELConceptDescription D, final List<Integer> layer) {
+      final Integer index = indices.get(D);
+      if (index != null)
+        return index;
+      final int x = elements.size();
+      indices.put(D, x);
+      elements.add(D);
+      labels.add(classifier.isSatisfiable(D) ? classifier.getSubsumers(D) : Collections.singleton(NOTHING));
+      successors.add(HashMultimap.create());
+      layer.add(x);
+      return x;
+    }
+
+    private final void insert(final int x, final ELConceptDescription D, final List<Integer> nextLayer) {
+      for (Entry<IRI, ELConceptDescription> rE : D.getExistentialRestrictions().entries())
+        successors.get(x).put(rE.getKey(), insert(rE.getValue(), nextLayer));
+    }
+
+    private final ELInterpretation2<ELConceptDescription> buildAndGet() {
+      List<Integer> layer = new ArrayList<>();
+      insert(C, layer);
+      for (int k = 0; k < roleDepth && !layer.isEmpty(); k++) {
+        final List<Integer> nextLayer = new ArrayList<>();
+        for (int x : layer)
+          if (!labels.get(x).contains(NOTHING)) {
+            insert(x, elements.get(x), nextLayer);
+            for (IRI A : labels.get(x))
+              for (ELConceptInclusion ci : inclusionsWithPremise.getOrDefault(A, Collections.emptyList()))
+                insert(x, ci.getSubsumer(), nextLayer);
+            for (ELConceptInclusion ci : otherInclusions)
+              if (classifier.isSubsumedBy(elements.get(x), ci.getSubsumee()))
+                insert(x, ci.getSubsumer(), nextLayer);
+          }
+        layer = nextLayer;
+      }
+      return assemble(elements, labels, successors);
     }
 
   }
@@ -133,23 +556,29 @@ public class ELTBox {
     return new CanonicalModelBuilder(C).buildAndGet();
   }
 
+  /**
+   * @return the part of the canonical model of C that is reachable from C within the given role depth, where the
+   *         elements at the maximal distance have no successors
+   */
+  public final ELInterpretation2<ELConceptDescription>
+      getCanonicalModel(final ELConceptDescription C, final int roleDepth) {
+    return new BoundedCanonicalModelBuilder(C, roleDepth).buildAndGet();
+  }
+
   public final ELConceptDescription getMostSpecificConsequence(final ELConceptDescription C, final int roleDepth) {
-    return getCanonicalModel(C).getMostSpecificConceptDescription(Collections.singleton(C), roleDepth);
+    return getCanonicalModel(C, roleDepth).getMostSpecificConceptDescription(Collections.singleton(C), roleDepth);
   }
 
   private final class CanonicalModelBuilderLutz {
 
-    private final ELConceptDescription                    C;
-    private final ELInterpretation2<ELConceptDescription> canmod;
-    private final Set<Entry<IRI, ELConceptDescription>>   exsubT;
-    private final Set<ELConceptDescription>               domain;
-    private final Set<IRI>                                conceptNames = new HashSet<>();
-    private final Set<IRI>                                roleNames    = new HashSet<>();
+    private final ELConceptDescription                  C;
+    private final Set<Entry<IRI, ELConceptDescription>> exsubT;
+    private final Set<ELConceptDescription>             domain;
+    private final Set<IRI>                              conceptNames = new HashSet<>();
 
     private CanonicalModelBuilderLutz(final ELConceptDescription C) {
       super();
       this.C = C;
-      this.canmod = new ELInterpretation2<>();
       this.exsubT = new HashSet<>();
       this.domain = new HashSet<>();
     }
@@ -168,7 +597,6 @@ public class ELTBox {
 
     private final void populate_signature(final ELConceptDescription X) {
       conceptNames.addAll(X.getConceptNames());
-      roleNames.addAll(X.getExistentialRestrictions().keys());
       for (ELConceptDescription Y : X.getExistentialRestrictions().values())
         populate_signature(Y);
     }
@@ -187,22 +615,39 @@ public class ELTBox {
         populate_signature(ci.getSubsumee());
         populate_signature(ci.getSubsumer());
       }
-      for (ELConceptDescription D : domain) {
-        for (IRI A : conceptNames)
-          if (ELReasoner.isSubsumedBy(D, ELConceptDescription.conceptName(A), ELTBox.this))
-            canmod.getConceptNameExtensionMatrix().add(D, A);
-        for (ELConceptDescription E : domain)
-          for (IRI r : roleNames) {
-            final HashMap<IRI, ELConceptDescription> hashMap = new HashMap<>();
-            hashMap.put(r, E);
-            final Entry<IRI, ELConceptDescription> rE = hashMap.entrySet().iterator().next();
-            if ((exsubT.contains(rE)
-                && ELReasoner.isSubsumedBy(D, ELConceptDescription.existentialRestriction(rE), ELTBox.this))
-                || D.getExistentialRestrictions().containsEntry(r, E))
-              canmod.getRoleNameExtensionMatrix(r).add(D, E);
-          }
+      final List<ELConceptDescription> elements = new ArrayList<>(domain);
+      final List<IRI> conceptNameList = new ArrayList<>(conceptNames);
+      final List<Entry<IRI, ELConceptDescription>> existentialRestrictions = new ArrayList<>(exsubT);
+      final List<ELConceptDescription> subsumers =
+          new ArrayList<>(conceptNameList.size() + existentialRestrictions.size());
+      for (IRI A : conceptNameList)
+        subsumers.add(ELConceptDescription.conceptName(A));
+      for (Entry<IRI, ELConceptDescription> rE : existentialRestrictions)
+        subsumers.add(ELConceptDescription.existentialRestriction(rE));
+      // all subsumptions are decided at once, and the heads of the matrix are indexed in iteration order
+      final MatrixRelation<ELConceptDescription, ELConceptDescription> subsumptionMatrix =
+          ELReasoner.subsumptionMatrix(elements, subsumers, ELTBox.this);
+      final Map<ELConceptDescription, Integer> indices = new HashMap<>();
+      for (int x = 0; x < elements.size(); x++)
+        indices.put(elements.get(x), x);
+      final List<Set<IRI>> labels = new ArrayList<>(elements.size());
+      final List<SetMultimap<IRI, Integer>> successors = new ArrayList<>(elements.size());
+      for (int x = 0; x < elements.size(); x++) {
+        final Set<IRI> labelsOfX = new HashSet<>();
+        final SetMultimap<IRI, Integer> successorsOfX = HashMultimap.create();
+        for (int j = 0; j < conceptNameList.size(); j++)
+          if (subsumptionMatrix.matrix().getBoolean(x, j))
+            labelsOfX.add(conceptNameList.get(j));
+        for (int j = 0; j < existentialRestrictions.size(); j++)
+          if (subsumptionMatrix.matrix().getBoolean(x, conceptNameList.size() + j))
+            successorsOfX
+                .put(existentialRestrictions.get(j).getKey(), indices.get(existentialRestrictions.get(j).getValue()));
+        for (Entry<IRI, ELConceptDescription> rE : elements.get(x).getExistentialRestrictions().entries())
+          successorsOfX.put(rE.getKey(), indices.get(rE.getValue()));
+        labels.add(labelsOfX);
+        successors.add(successorsOfX);
       }
-      return canmod;
+      return assemble(elements, labels, successors);
     }
 
   }
@@ -225,7 +670,16 @@ public class ELTBox {
     return this.conceptInclusions.equals(other.conceptInclusions);
   }
 
-  public final OWLOntology toOWLOntology() {
+  /**
+   * The returned ontology is built once per version of this TBox and shared by all callers, e.g., in order that
+   * {@link ELReasoner#isSubsumedBy(OWLClassExpression, OWLClassExpression, OWLOntology)} can reuse its reasoning
+   * session. It should thus not be modified; if it is nevertheless, then the next call builds a new ontology.
+   * 
+   * @return an ontology that contains the concept inclusions of this TBox
+   */
+  public final synchronized OWLOntology toOWLOntology() {
+    if (ontology != null && ontologyVersion == version)
+      return ontology;
     try {
       final OWLOntologyManager om = OWLManager.createOWLOntologyManager();
       final OWLDataFactory df = om.getOWLDataFactory();
@@ -239,8 +693,17 @@ public class ELTBox {
                           ontology,
                           df
                               .getOWLSubClassOfAxiom(
-                                  gci.getSubsumee().clone().reduce().toOWLClassExpression(),
-                                  gci.getSubsumer().clone().reduce().toOWLClassExpression()))));
+                                  gci.getSubsumee().getReducedForm().toOWLClassExpression(),
+                                  gci.getSubsumer().getReducedForm().toOWLClassExpression()))));
+      // registered only now, since the above changes must not discard the ontology
+      om.addOntologyChangeListener(changes -> {
+        synchronized (ELTBox.this) {
+          if (this.ontology == ontology)
+            this.ontology = null;
+        }
+      });
+      this.ontology = ontology;
+      this.ontologyVersion = version;
       return ontology;
     } catch (OWLOntologyCreationException e) {
       throw new RuntimeException(e);
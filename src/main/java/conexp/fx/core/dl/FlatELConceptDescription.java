@@ -0,0 +1,399 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * A read-only, flat encoding of the description tree of an {@link ELConceptDescription} w.r.t. a
+ * {@link SignatureDictionary}. The nodes are numbered in pre-order, and all information is stored in parallel int
+ * arrays: the sorted concept names of each node, the role of the edge leading to each node, and the end of the
+ * subtree rooted at each node, i.e., the children of a node are found by jumping from subtree to subtree. The
+ * children of each node are sorted by role, such that subsumption and least common subsumers merge-join the children
+ * by role. Data values are not supported. The concept name owl:Thing is dropped on encoding.
+ */
+public final class FlatELConceptDescription {
+
+  private static final IRI THING   = OWLManager.getOWLDataFactory().getOWLThing().getIRI();
+  private static final IRI NOTHING = OWLManager.getOWLDataFactory().getOWLNothing().getIRI();
+
+  public static final FlatELConceptDescription
+      of(final ELConceptDescription concept, final SignatureDictionary dictionary) {
+    final Builder builder = new Builder(dictionary);
+    builder.add(concept, -1);
+    return builder.build();
+  }
+
+  private final SignatureDictionary dictionary;
+  /**
+   * the concept names of node i are labels[labelStart[i]], ..., labels[labelStart[i+1]-1], in ascending order
+   */
+  private final int[]               labelStart;
+  private final int[]               labels;
+  /**
+   * the role of the existential restriction leading to node i, or -1 for the root
+   */
+  private final int[]               roles;
+  /**
+   * the subtree rooted at node i consists of the nodes i, ..., subtreeEnd[i]-1
+   */
+  private final int[]               subtreeEnd;
+  private final boolean[]           bot;
+
+  private FlatELConceptDescription(
+      final SignatureDictionary dictionary,
+      final int[] labelStart,
+      final int[] labels,
+      final int[] roles,
+      final int[] subtreeEnd) {
+    super();
+    this.dictionary = dictionary;
+    this.labelStart = labelStart;
+    this.labels = labels;
+    this.roles = roles;
+    this.subtreeEnd = subtreeEnd;
+    this.bot = new boolean[roles.length];
+    final int nothing = dictionary.conceptName(NOTHING);
+    for (int i = roles.length - 1; i >= 0; i--) {
+      bot[i] = Arrays.binarySearch(labels, labelStart[i], labelStart[i + 1], nothing) >= 0;
+      for (int j = i + 1; j < subtreeEnd[i] && !bot[i]; j = subtreeEnd[j])
+        bot[i] = bot[j];
+    }
+  }
+
+  public final SignatureDictionary getDictionary() {
+    return dictionary;
+  }
+
+  public final int nodeCount() {
+    return roles.length;
+  }
+
+  public final boolean isBot() {
+    return bot[0];
+  }
+
+  public final boolean isTop() {
+    return roles.length == 1 && labelStart[1] == 0;
+  }
+
+  public final int roleDepth() {
+    return roleDepth(0);
+  }
+
+  private final int roleDepth(final int node) {
+    int roleDepth = 0;
+    for (int child = node + 1; child < subtreeEnd[node]; child = subtreeEnd[child])
+      roleDepth = Math.max(roleDepth, 1 + roleDepth(child));
+    return roleDepth;
+  }
+
+  /**
+   * @return the size as defined in {@link ELConceptDescription#size()}
+   */
+  public final int size() {
+    return size(0);
+  }
+
+  private final int size(final int node) {
+    int size = 2 * (labelStart[node + 1] - labelStart[node]) - 1;
+    for (int child = node + 1; child < subtreeEnd[node]; child = subtreeEnd[child])
+      size += 2 + size(child);
+    return Math.max(1, size);
+  }
+
+  /**
+   * @return true, iff this concept description is subsumed by the other one (w.r.t. empty TBox)
+   */
+  public final boolean isSubsumedBy(final FlatELConceptDescription other) {
+    checkDictionary(other);
+    return isSubsumedBy(this, 0, other, 0);
+  }
+
+  public final boolean subsumes(final FlatELConceptDescription other) {
+    return other.isSubsumedBy(this);
+  }
+
+  private final void checkDictionary(final FlatELConceptDescription other) {
+    if (this.dictionary != other.dictionary)
+      throw new IllegalArgumentException("Both concept descriptions must be encoded w.r.t. the same dictionary.");
+  }
+
+  private static final boolean isSubsumedBy(
+      final FlatELConceptDescription concept1,
+      final int node1,
+      final FlatELConceptDescription concept2,
+      final int node2) {
+    if (concept1.bot[node1])
+      return true;
+    if (!containsAll(
+        concept1.labels,
+        concept1.labelStart[node1],
+        concept1.labelStart[node1 + 1],
+        concept2.labels,
+        concept2.labelStart[node2],
+        concept2.labelStart[node2 + 1]))
+      return false;
+    // merge-join of the children, which are sorted by role in both concept descriptions
+    int first1 = node1 + 1;
+    for (int child2 = node2 + 1; child2 < concept2.subtreeEnd[node2]; child2 = concept2.subtreeEnd[child2]) {
+      final int r = concept2.roles[child2];
+      while (first1 < concept1.subtreeEnd[node1] && concept1.roles[first1] < r)
+        first1 = concept1.subtreeEnd[first1];
+      boolean found = false;
+      for (int child1 = first1; !found && child1 < concept1.subtreeEnd[node1]
+          && concept1.roles[child1] == r; child1 = concept1.subtreeEnd[child1])
+        found = isSubsumedBy(concept1, child1, concept2, child2);
+      if (!found)
+        return false;
+    }
+    return true;
+  }
+
+  private static final boolean
+      containsAll(final int[] xs, int i, final int xEnd, final int[] ys, int j, final int yEnd) {
+    while (j < yEnd) {
+      while (i < xEnd && xs[i] < ys[j])
+        i++;
+      if (i == xEnd || xs[i] != ys[j])
+        return false;
+      i++;
+      j++;
+    }
+    return true;
+  }
+
+  /**
+   * @return the reduced form of this concept description, as a new flat encoding
+   */
+  public final FlatELConceptDescription reduce() {
+    final Builder builder = new Builder(dictionary);
+    if (bot[0]) {
+      builder.open(-1, new int[] { dictionary.conceptName(NOTHING) }, 0, 1);
+      builder.close(0);
+    } else
+      builder.addReduced(this, 0, -1);
+    return builder.build();
+  }
+
+  /**
+   * @return true, iff the child is redundant among its siblings with the same role, i.e., if there is another such
+   *         sibling that is subsumed by the child (and, in case of equivalence, precedes the child)
+   */
+  private final boolean isRedundant(final int parent, final int child) {
+    int sibling = parent + 1;
+    while (sibling < subtreeEnd[parent] && roles[sibling] < roles[child])
+      sibling = subtreeEnd[sibling];
+    for (; sibling < subtreeEnd[parent] && roles[sibling] == roles[child]; sibling = subtreeEnd[sibling])
+      if (sibling != child && isSubsumedBy(this, sibling, this, child)
+          && (sibling < child || !isSubsumedBy(this, child, this, sibling)))
+        return true;
+    return false;
+  }
+
+  /**
+   * @return the least common subsumer of this and the other concept description, in reduced form
+   */
+  public final FlatELConceptDescription lcs(final FlatELConceptDescription other) {
+    checkDictionary(other);
+    final Builder builder = new Builder(dictionary);
+    builder.addLCS(this, 0, other, 0, -1);
+    return builder.build().reduce();
+  }
+
+  /**
+   * @return the least common subsumer of the given concept descriptions, which is bottom if there are none
+   */
+  public static final FlatELConceptDescription
+      lcs(final Collection<FlatELConceptDescription> concepts, final SignatureDictionary dictionary) {
+    final Iterator<FlatELConceptDescription> it = concepts.iterator();
+    if (!it.hasNext()) {
+      final Builder builder = new Builder(dictionary);
+      builder.open(-1, new int[] { dictionary.conceptName(NOTHING) }, 0, 1);
+      builder.close(0);
+      return builder.build();
+    }
+    FlatELConceptDescription lcs = it.next().reduce();
+    while (it.hasNext())
+      lcs = lcs.lcs(it.next());
+    return lcs;
+  }
+
+  public final ELConceptDescription toELConceptDescription() {
+    return toELConceptDescription(0);
+  }
+
+  private final ELConceptDescription toELConceptDescription(final int node) {
+    final ELConceptDescription concept = new ELConceptDescription();
+    for (int k = labelStart[node]; k < labelStart[node + 1]; k++)
+      concept.getConceptNames().add(dictionary.conceptName(labels[k]));
+    for (int child = node + 1; child < subtreeEnd[node]; child = subtreeEnd[child])
+      concept.getExistentialRestrictions().put(dictionary.roleName(roles[child]), toELConceptDescription(child));
+    return concept;
+  }
+
+  @Override
+  public final String toString() {
+    return toELConceptDescription().toString();
+  }
+
+  private static final class Builder {
+
+    private final SignatureDictionary dictionary;
+    private int[]                     labelStart = new int[16];
+    private int[]                     labels     = new int[16];
+    private int[]                     roles      = new int[16];
+    private int[]                     subtreeEnd = new int[16];
+    private int                       nodes      = 0;
+    private int                       labelCount = 0;
+
+    private Builder(final SignatureDictionary dictionary) {
+      super();
+      this.dictionary = dictionary;
+    }
+
+    private final int open(final int role, final int[] names, final int from, final int to) {
+      if (nodes + 1 >= roles.length) {
+        labelStart = Arrays.copyOf(labelStart, 2 * roles.length + 1);
+        roles = Arrays.copyOf(roles, 2 * roles.length);
+        subtreeEnd = Arrays.copyOf(subtreeEnd, roles.length);
+      }
+      if (labelCount + to - from > labels.length)
+        labels = Arrays.copyOf(labels, Math.max(2 * labels.length, labelCount + to - from));
+      System.arraycopy(names, from, labels, labelCount, to - from);
+      labelStart[nodes] = labelCount;
+      labelCount += to - from;
+      labelStart[nodes + 1] = labelCount;
+      roles[nodes] = role;
+      return nodes++;
+    }
+
+    private final void close(final int node) {
+      subtreeEnd[node] = nodes;
+    }
+
+    private final void add(final ELConceptDescription concept, final int role) {
+      if (!concept.getDataValues().isEmpty())
+        throw new IllegalArgumentException("Data values are not supported by the flat encoding.");
+      final int[] names = concept
+          .getConceptNames()
+          .stream()
+          .filter(A -> !A.equals(THING))
+          .mapToInt(dictionary::conceptName)
+          .sorted()
+          .toArray();
+      final int node = open(role, names, 0, names.length);
+      final List<Entry<IRI, ELConceptDescription>> existentialRestrictions =
+          new ArrayList<>(concept.getExistentialRestrictions().entries());
+      existentialRestrictions
+          .sort((er1, er2) -> Integer.compare(dictionary.roleName(er1.getKey()), dictionary.roleName(er2.getKey())));
+      for (Entry<IRI, ELConceptDescription> existentialRestriction : existentialRestrictions)
+        add(existentialRestriction.getValue(), dictionary.roleName(existentialRestriction.getKey()));
+      close(node);
+    }
+
+    private final void copy(final FlatELConceptDescription source, final int sourceNode, final int role) {
+      final int node = open(role, source.labels, source.labelStart[sourceNode], source.labelStart[sourceNode + 1]);
+      for (int child = sourceNode + 1; child < source.subtreeEnd[sourceNode]; child = source.subtreeEnd[child])
+        copy(source, child, source.roles[child]);
+      close(node);
+    }
+
+    private final void addReduced(final FlatELConceptDescription source, final int sourceNode, final int role) {
+      final int node = open(role, source.labels, source.labelStart[sourceNode], source.labelStart[sourceNode + 1]);
+      for (int child = sourceNode + 1; child < source.subtreeEnd[sourceNode]; child = source.subtreeEnd[child])
+        if (!source.isRedundant(sourceNode, child))
+          addReduced(source, child, source.roles[child]);
+      close(node);
+    }
+
+    private final void addLCS(
+        final FlatELConceptDescription concept1,
+        final int node1,
+        final FlatELConceptDescription concept2,
+        final int node2,
+        final int role) {
+      if (concept1.bot[node1]) {
+        copy(concept2, node2, role);
+        return;
+      }
+      if (concept2.bot[node2]) {
+        copy(concept1, node1, role);
+        return;
+      }
+      final int[] commonNames = new int[Math
+          .min(
+              concept1.labelStart[node1 + 1] - concept1.labelStart[node1],
+              concept2.labelStart[node2 + 1] - concept2.labelStart[node2])];
+      int n = 0;
+      for (int i = concept1.labelStart[node1], j = concept2.labelStart[node2]; i < concept1.labelStart[node1 + 1]
+          && j < concept2.labelStart[node2 + 1];)
+        if (concept1.labels[i] < concept2.labels[j])
+          i++;
+        else if (concept1.labels[i] > concept2.labels[j])
+          j++;
+        else {
+          commonNames[n++] = concept1.labels[i];
+          i++;
+          j++;
+        }
+      final int node = open(role, commonNames, 0, n);
+      // merge-join of the children by role, such that the children of the new node are sorted by role, too
+      int first2 = node2 + 1;
+      for (int first1 = node1 + 1; first1 < concept1.subtreeEnd[node1];) {
+        final int r = concept1.roles[first1];
+        while (first2 < concept2.subtreeEnd[node2] && concept2.roles[first2] < r)
+          first2 = concept2.subtreeEnd[first2];
+        int last1 = first1;
+        while (last1 < concept1.subtreeEnd[node1] && concept1.roles[last1] == r)
+          last1 = concept1.subtreeEnd[last1];
+        for (int child1 = first1; child1 < last1; child1 = concept1.subtreeEnd[child1])
+          for (int child2 = first2; child2 < concept2.subtreeEnd[node2]
+              && concept2.roles[child2] == r; child2 = concept2.subtreeEnd[child2])
+            addLCS(concept1, child1, concept2, child2, r);
+        first1 = last1;
+      }
+      close(node);
+    }
+
+    private final FlatELConceptDescription build() {
+      return new FlatELConceptDescription(
+          dictionary,
+          Arrays.copyOf(labelStart, nodes + 1),
+          Arrays.copyOf(labels, labelCount),
+          Arrays.copyOf(roles, nodes),
+          Arrays.copyOf(subtreeEnd, nodes));
+    }
+
+  }
+
+}
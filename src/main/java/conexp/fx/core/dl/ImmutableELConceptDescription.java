@@ -0,0 +1,252 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Multimap;
+import com.google.common.hash.Hashing;
+
+/**
+ * A hash-consed, immutable variant of {@link ELConceptDescription}. Instances are only obtained through the static
+ * factory methods, which intern every node bottom-up, i.e., structurally equal concept descriptions are always
+ * represented by the very same object. Hash code, size, role depth and bottom-ness are computed once on construction,
+ * and {@link #equals(Object)} boils down to a pointer comparison for interned instances.
+ */
+public final class ImmutableELConceptDescription {
+
+  private static final IRI                                     THING    =
+      OWLManager.getOWLDataFactory().getOWLThing().getIRI();
+  private static final IRI                                     NOTHING  =
+      OWLManager.getOWLDataFactory().getOWLNothing().getIRI();
+  private static final Interner<ImmutableELConceptDescription> interner = Interners.newWeakInterner();
+  private static final ImmutableELConceptDescription           top      =
+      of(ImmutableSet.of(), ImmutableSetMultimap.of());
+
+  public static final ImmutableELConceptDescription top() {
+    return top;
+  }
+
+  public static final ImmutableELConceptDescription of(final ELConceptDescription concept) {
+    final ImmutableSetMultimap.Builder<IRI, ImmutableELConceptDescription> existentialRestrictions =
+        ImmutableSetMultimap.builder();
+    for (Entry<IRI, ELConceptDescription> existentialRestriction : concept.getExistentialRestrictions().entries())
+      existentialRestrictions.put(existentialRestriction.getKey(), existentialRestriction.getValue().intern());
+    return of(concept.getConceptNames(), existentialRestrictions.build(), concept.getDataValues());
+  }
+
+  public static final ImmutableELConceptDescription of(
+      final Set<IRI> conceptNames,
+      final Multimap<IRI, ImmutableELConceptDescription> existentialRestrictions) {
+    return of(conceptNames, existentialRestrictions, ImmutableSetMultimap.of());
+  }
+
+  public static final ImmutableELConceptDescription of(
+      final Set<IRI> conceptNames,
+      final Multimap<IRI, ImmutableELConceptDescription> existentialRestrictions,
+      final Multimap<IRI, OWLLiteral> dataValues) {
+    return interner
+        .intern(
+            new ImmutableELConceptDescription(
+                ImmutableSet.copyOf(conceptNames),
+                ImmutableSetMultimap.copyOf(existentialRestrictions),
+                ImmutableSetMultimap.copyOf(dataValues)));
+  }
+
+  private final ImmutableSet<IRI>                                        conceptNames;
+  private final ImmutableSetMultimap<IRI, ImmutableELConceptDescription> existentialRestrictions;
+  private final ImmutableSetMultimap<IRI, OWLLiteral>                    dataValues;
+  private final int                                                      hashCode;
+  private final int                                                      size;
+  private final int                                                      roleDepth;
+  private final boolean                                                  isBot;
+  private final long                                                     signatureMask;
+  private volatile long                                                  fingerprint;
+  private volatile boolean                                               hasFingerprint;
+
+  private ImmutableELConceptDescription(
+      final ImmutableSet<IRI> conceptNames,
+      final ImmutableSetMultimap<IRI, ImmutableELConceptDescription> existentialRestrictions,
+      final ImmutableSetMultimap<IRI, OWLLiteral> dataValues) {
+    super();
+    this.conceptNames = conceptNames;
+    this.existentialRestrictions = existentialRestrictions;
+    this.dataValues = dataValues;
+    // the hash code is mixed, since otherwise sets of nodes would collide whenever their concept names are merely
+    // distributed differently among the nodes, e.g., {A1 and A2, A3} and {A1, A2 and A3}
+    final int hashCode =
+        0x9E3779B9 * (2 * conceptNames.hashCode() + 3 * existentialRestrictions.hashCode() + 4 * dataValues.hashCode());
+    this.hashCode = hashCode ^ (hashCode >>> 16);
+    int size = 2 * conceptNames.size() + existentialRestrictions.size() - 1;
+    int roleDepth = 0;
+    boolean isBot = conceptNames.contains(NOTHING);
+    long signatureMask = 0L;
+    for (IRI A : conceptNames)
+      signatureMask |= conceptNameBit(A);
+    for (IRI r : existentialRestrictions.keySet())
+      signatureMask |= roleNameBit(r);
+    for (ImmutableELConceptDescription filler : existentialRestrictions.values()) {
+      size += 1 + filler.size;
+      roleDepth = Math.max(roleDepth, 1 + filler.roleDepth);
+      isBot |= filler.isBot;
+      signatureMask |= filler.signatureMask;
+    }
+    this.size = Math.max(1, size);
+    this.roleDepth = roleDepth;
+    this.isBot = isBot;
+    this.signatureMask = signatureMask;
+  }
+
+  public final ImmutableSet<IRI> getConceptNames() {
+    return conceptNames;
+  }
+
+  public final ImmutableSetMultimap<IRI, ImmutableELConceptDescription> getExistentialRestrictions() {
+    return existentialRestrictions;
+  }
+
+  public final ImmutableSetMultimap<IRI, OWLLiteral> getDataValues() {
+    return dataValues;
+  }
+
+  public final boolean isBot() {
+    return isBot;
+  }
+
+  public final boolean isTop() {
+    return (conceptNames.isEmpty() || (conceptNames.size() == 1 && conceptNames.contains(THING)))
+        && existentialRestrictions.isEmpty();
+  }
+
+  public final int size() {
+    return size;
+  }
+
+  public final int roleDepth() {
+    return roleDepth;
+  }
+
+  /**
+   * A Bloom filter of the concept names (except owl:Thing) and role names occurring in this concept description, with
+   * one bit per name. If C is subsumed by D and C is not equivalent to bottom, then the signature of D is contained in
+   * that of C, and so is the mask of D in the mask of C.
+   * 
+   * @return the signature mask of this concept description
+   */
+  public final long signatureMask() {
+    return signatureMask;
+  }
+
+  static final long conceptNameBit(final IRI conceptName) {
+    return conceptName.equals(THING) ? 0L : 1L << (mix(conceptName.hashCode()) >>> 58);
+  }
+
+  static final long roleNameBit(final IRI roleName) {
+    // a different seed, since a role name may have the same IRI as a concept name
+    return 1L << (mix(roleName.hashCode() ^ 0x5851F42D4C957F2DL) >>> 58);
+  }
+
+  /**
+   * A 64-bit hash code that only depends on the structure of this concept description, but neither on the order of
+   * its conjuncts nor on the occurrence of owl:Thing. Since reduced forms are unique up to isomorphism, equivalent
+   * concept descriptions have the same fingerprint if both are reduced; the converse holds with high probability.
+   * 
+   * @return the fingerprint of this concept description, which is computed on the first call
+   */
+  public final long fingerprint() {
+    if (hasFingerprint)
+      return fingerprint;
+    long names = 0L;
+    for (IRI A : conceptNames)
+      if (!A.equals(THING))
+        names += mix(hash(A));
+    long restrictions = 0L;
+    for (Entry<IRI, ImmutableELConceptDescription> existentialRestriction : existentialRestrictions.entries())
+      restrictions += mix(hash(existentialRestriction.getKey()) ^ mix(existentialRestriction.getValue().fingerprint()));
+    final long fingerprint =
+        mix(names + 0x9E3779B97F4A7C15L * restrictions + 0xC2B2AE3D27D4EB4FL * dataValues.hashCode());
+    this.fingerprint = fingerprint;
+    hasFingerprint = true;
+    return fingerprint;
+  }
+
+  private static final long hash(final IRI iri) {
+    return Hashing.murmur3_128().hashUnencodedChars(iri.toString()).asLong();
+  }
+
+  /**
+   * the finalizer of SplitMix64, which spreads all bits of the argument over the result
+   */
+  private static final long mix(long x) {
+    x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+    x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+    return x ^ (x >>> 31);
+  }
+
+  /**
+   * @return a fresh, mutable copy of this concept description
+   */
+  public final ELConceptDescription toELConceptDescription() {
+    final ELConceptDescription concept = new ELConceptDescription();
+    concept.getConceptNames().addAll(conceptNames);
+    concept.getDataValues().putAll(dataValues);
+    for (Entry<IRI, ImmutableELConceptDescription> existentialRestriction : existentialRestrictions.entries())
+      concept
+          .getExistentialRestrictions()
+          .put(existentialRestriction.getKey(), existentialRestriction.getValue().toELConceptDescription());
+    return concept;
+  }
+
+  @Override
+  public final boolean equals(final Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof ImmutableELConceptDescription))
+      return false;
+    final ImmutableELConceptDescription other = (ImmutableELConceptDescription) obj;
+    // only reached by the interner, since all fillers are interned the comparison of the fillers is by identity
+    return this.hashCode == other.hashCode && this.conceptNames.equals(other.conceptNames)
+        && this.existentialRestrictions.equals(other.existentialRestrictions)
+        && this.dataValues.equals(other.dataValues);
+  }
+
+  @Override
+  public final int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public final String toString() {
+    return toELConceptDescription().toString();
+  }
+
+}
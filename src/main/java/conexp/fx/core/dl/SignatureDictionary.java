@@ -0,0 +1,105 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * A dictionary that assigns dense integer identifiers to the concept names and role names of a signature, such that
+ * sets of concept names can be represented as bit sets and role names as plain ints. Names that are not yet known are
+ * added on demand, i.e., the identifiers of names never change once they have been assigned.
+ */
+public final class SignatureDictionary {
+
+  public static final SignatureDictionary of(final Signature sigma) {
+    final SignatureDictionary dictionary = new SignatureDictionary();
+    sigma.getConceptNames().forEach(dictionary::conceptName);
+    sigma.getRoleNames().forEach(dictionary::roleName);
+    return dictionary;
+  }
+
+  private final Map<IRI, Integer> conceptNameIds = new ConcurrentHashMap<>();
+  private final Map<IRI, Integer> roleNameIds    = new ConcurrentHashMap<>();
+  private final List<IRI>         conceptNames   = new ArrayList<>();
+  private final List<IRI>         roleNames      = new ArrayList<>();
+
+  public SignatureDictionary() {
+    super();
+  }
+
+  /**
+   * @return the identifier of the given concept name, which is assigned if the concept name is not yet known
+   */
+  public final int conceptName(final IRI conceptName) {
+    final Integer id = conceptNameIds.get(conceptName);
+    if (id != null)
+      return id;
+    return assign(conceptName, conceptNameIds, conceptNames);
+  }
+
+  /**
+   * @return the identifier of the given role name, which is assigned if the role name is not yet known
+   */
+  public final int roleName(final IRI roleName) {
+    final Integer id = roleNameIds.get(roleName);
+    if (id != null)
+      return id;
+    return assign(roleName, roleNameIds, roleNames);
+  }
+
+  private final synchronized int assign(final IRI name, final Map<IRI, Integer> ids, final List<IRI> names) {
+    return ids.computeIfAbsent(name, __ -> {
+      names.add(name);
+      return names.size() - 1;
+    });
+  }
+
+  public final synchronized IRI conceptName(final int id) {
+    return conceptNames.get(id);
+  }
+
+  public final synchronized IRI roleName(final int id) {
+    return roleNames.get(id);
+  }
+
+  public final synchronized int conceptNameCount() {
+    return conceptNames.size();
+  }
+
+  public final synchronized int roleNameCount() {
+    return roleNames.size();
+  }
+
+  @Override
+  public final synchronized String toString() {
+    return "signature dictionary with " + conceptNames.size() + " concept names and " + roleNames.size()
+        + " role names";
+  }
+
+}
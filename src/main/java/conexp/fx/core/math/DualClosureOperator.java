@@ -107,6 +107,24 @@ public interface DualClosureOperator<T extends LatticeElement<T>> extends Functi
       };
   }
 
+  /**
+   * @return the dual closure operator of the given interpretation up to the given role depth, which throws an
+   *         {@link conexp.fx.core.dl.ELSizeBudgetExceededException} if a concept description that is built during the
+   *         computation of a closure is larger than the size budget
+   */
+  public static <I> DualClosureOperator<ELConceptDescription>
+      fromInterpretation(final ELInterpretation2<I> i, final int d, final int sizeBudget) {
+    if (d < 0 || sizeBudget < 1)
+      throw new IllegalArgumentException();
+    else
+      return c -> {
+        if (c.roleDepth() > d)
+          throw new IllegalArgumentException();
+        else
+          return i.getMostSpecificConceptDescription(i.getExtension(c), d, sizeBudget);
+      };
+  }
+
   public static DualClosureOperator<ELConceptDescription> fromTBox(final ELTBox t, final int d) {
     if (d < 0)
       throw new IllegalArgumentException();
@@ -0,0 +1,94 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compares the role-depth bounded canonical model with the full one on a random TBox for the role depths 0 to the
+ * given maximum, and reports the running times, the domain sizes, and the number of queries for which the most
+ * specific consequences are not equivalent (which must be 0).
+ * Usage: ELMostSpecificConsequenceBenchmark [concept inclusions] [queries] [maximal role depth] [seed]
+ */
+public class ELMostSpecificConsequenceBenchmark {
+
+  public static void main(final String[] args) {
+    final int size = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    final int number = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    final int maxRoleDepth = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    final long seed = args.length > 3 ? Long.parseLong(args[3]) : 24;
+    final RandomELConceptDescriptions random = new RandomELConceptDescriptions(seed, Math.max(size, 50), 5);
+    final ELTBox tBox = random.nextTBox(size, 0);
+    final List<ELConceptDescription> queries = new ArrayList<>(number + 1);
+    for (int i = 0; i < number; i++)
+      queries.add(random.next(2));
+    queries.add(ELConceptDescription.top());
+    // the classifier is saturated once in advance, since it is shared by all bounded canonical models
+    tBox.getClassifier().isSatisfiable(ELConceptDescription.top());
+    long start = System.nanoTime();
+    final List<ELInterpretation2<ELConceptDescription>> models = new ArrayList<>(queries.size());
+    for (ELConceptDescription C : queries)
+      models.add(tBox.getCanonicalModel(C));
+    System.out
+        .println(
+            size + " concept inclusions, " + queries.size() + " queries, full canonical models built in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+    int mismatches = 0;
+    for (int roleDepth = 0; roleDepth <= maxRoleDepth; roleDepth++) {
+      long bounded = 0;
+      long full = 0;
+      int boundedDomain = 0;
+      int fullDomain = 0;
+      int mismatchesAtRoleDepth = 0;
+      for (int i = 0; i < queries.size(); i++) {
+        final ELConceptDescription C = queries.get(i);
+        start = System.nanoTime();
+        final ELInterpretation2<ELConceptDescription> boundedModel = tBox.getCanonicalModel(C, roleDepth);
+        final ELConceptDescription boundedMsc =
+            boundedModel.getMostSpecificConceptDescription(Collections.singleton(C), roleDepth);
+        bounded += System.nanoTime() - start;
+        start = System.nanoTime();
+        final ELConceptDescription fullMsc =
+            models.get(i).getMostSpecificConceptDescription(Collections.singleton(C), roleDepth);
+        full += System.nanoTime() - start;
+        boundedDomain += boundedModel.getDomain().size();
+        fullDomain += models.get(i).getDomain().size();
+        if (!boundedMsc.isEquivalentTo(fullMsc)) {
+          mismatchesAtRoleDepth++;
+          System.out.println("mismatch for " + C + ": bounded " + boundedMsc + ", full " + fullMsc);
+        }
+      }
+      mismatches += mismatchesAtRoleDepth;
+      System.out
+          .println(
+              "role depth " + roleDepth + ": bounded " + bounded / 1000000 + " ms (domain " + boundedDomain
+                  + "), read-off from the full models " + full / 1000000 + " ms (domain " + fullDomain + "), "
+                  + mismatchesAtRoleDepth + " mismatches");
+    }
+    if (mismatches > 0)
+      System.exit(1);
+  }
+
+}
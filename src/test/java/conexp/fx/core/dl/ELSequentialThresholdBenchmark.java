@@ -0,0 +1,89 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the running time of typical operations on EL concept descriptions for several values of the sequential
+ * threshold of {@link ELExecutionContext}, in order to determine its break-even point on the machine at hand.
+ * Usage: ELSequentialThresholdBenchmark [parallelism] [concepts] [rounds]
+ */
+public class ELSequentialThresholdBenchmark {
+
+  private static final int[] THRESHOLDS = { 0, 4, 16, 64, 256, Integer.MAX_VALUE };
+
+  public static void main(final String[] args) {
+    final int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    final int concepts = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    final int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    final ELExecutionContext context = ELExecutionContext.dedicated(parallelism);
+    try {
+      System.out.println(context);
+      // one warm-up round with the default threshold, such that the JIT compiler has done its work
+      run(context, concepts, 1);
+      for (int threshold : THRESHOLDS) {
+        ELExecutionContext.setSequentialThreshold(threshold);
+        final long start = System.nanoTime();
+        final long checksum = run(context, concepts, rounds);
+        System.out
+            .println(
+                "threshold " + (threshold == Integer.MAX_VALUE ? "infinite" : threshold) + ": "
+                    + (System.nanoTime() - start) / 1000000 / rounds + " ms per round (checksum " + checksum + ")");
+      }
+    } finally {
+      ELExecutionContext.setSequentialThreshold(ELExecutionContext.DEFAULT_SEQUENTIAL_THRESHOLD);
+      context.shutdown();
+    }
+  }
+
+  private static final long run(final ELExecutionContext context, final int concepts, final int rounds) {
+    long checksum = 0;
+    for (int round = 0; round < rounds; round++) {
+      // the same seed in each round, such that all thresholds are measured on the same concept descriptions
+      final RandomELConceptDescriptions random = new RandomELConceptDescriptions(round, 64, 4);
+      final List<ELConceptDescription> Cs = new ArrayList<>(concepts);
+      for (int i = 0; i < concepts; i++) {
+        // wide concept descriptions, such that some levels exceed the smaller thresholds
+        ELConceptDescription C = random.next(2);
+        for (int j = 0; j < 8; j++)
+          C = C.and(random.next(2));
+        Cs.add(C);
+      }
+      checksum += context.call(() -> {
+        long sum = 0;
+        for (int i = 0; i + 1 < Cs.size(); i++) {
+          final ELConceptDescription C = Cs.get(i).clone();
+          final ELConceptDescription D = Cs.get(i + 1).clone();
+          sum += C.isSubsumedBy(D) ? 1 : 0;
+          sum += ELLeastCommonSubsumer.lcs(C, D).size();
+          sum += C.rank();
+        }
+        return sum;
+      });
+    }
+    return checksum;
+  }
+
+}
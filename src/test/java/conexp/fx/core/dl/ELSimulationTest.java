@@ -0,0 +1,120 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+
+import conexp.fx.core.dl.ELReasoner.SubsumptionEngine;
+
+/**
+ * Differential test of the simulation-based subsumption engine against the structural one.
+ */
+public class ELSimulationTest {
+
+  private static final int PAIRS = 2000;
+  private static final IRI r0    = IRI.create("http://example.org/r0");
+
+  private final SubsumptionEngine engine = ELReasoner.getSubsumptionEngine();
+
+  @After
+  public void restoreEngine() {
+    ELReasoner.setSubsumptionEngine(engine);
+  }
+
+  private static final List<ELConceptDescription[]> pairs(final long seed) {
+    final RandomELConceptDescriptions random = new RandomELConceptDescriptions(seed, 8, 3);
+    final List<ELConceptDescription[]> pairs = new ArrayList<>(PAIRS);
+    for (int i = 0; i < PAIRS; i++) {
+      final ELConceptDescription C = random.next(3);
+      switch (random.random().nextInt(4)) {
+      case 0:
+        pairs.add(new ELConceptDescription[] { C, random.next(3) });
+        break;
+      case 1:
+        pairs.add(new ELConceptDescription[] { random.generalize(C), C });
+        break;
+      case 2:
+        C.getExistentialRestrictions().put(r0, ELConceptDescription.bot());
+        pairs.add(new ELConceptDescription[] { C, random.next(2) });
+        break;
+      default:
+        pairs.add(new ELConceptDescription[] { C, random.generalize(C) });
+      }
+    }
+    return pairs;
+  }
+
+  private static final boolean isSubsumedBy(
+      final SubsumptionEngine engine,
+      final ELConceptDescription C,
+      final ELConceptDescription D) {
+    ELReasoner.setSubsumptionEngine(engine);
+    return ELReasoner.isSubsumedBy(C, D, new ELSubsumptionCache(ELSubsumptionCache.DEFAULT_CALL_MAXIMUM_SIZE));
+  }
+
+  @Test
+  public void testEnginesAgree() {
+    int subsumptions = 0;
+    for (ELConceptDescription[] pair : pairs(3)) {
+      final boolean structural = isSubsumedBy(SubsumptionEngine.STRUCTURAL, pair[0], pair[1]);
+      final boolean simulation = isSubsumedBy(SubsumptionEngine.SIMULATION, pair[0], pair[1]);
+      assertEquals(pair[0] + " <= " + pair[1], structural, simulation);
+      if (structural)
+        subsumptions++;
+    }
+    // the pairs must contain both subsumptions and non-subsumptions in order to be meaningful
+    assertTrue(subsumptions > PAIRS / 4 && subsumptions < PAIRS * 3 / 4);
+  }
+
+  @Test
+  public void testSimulationAgreesOnAllSubDescriptions() {
+    for (ELConceptDescription[] pair : pairs(4).subList(0, PAIRS / 10)) {
+      final ImmutableELConceptDescription C = pair[0].intern();
+      final ImmutableELConceptDescription D = pair[1].intern();
+      final ELSimulation simulation = ELSimulation.of(C, D);
+      for (ImmutableELConceptDescription X : subDescriptions(C))
+        for (ImmutableELConceptDescription Y : subDescriptions(D))
+          assertEquals(
+              X + " <= " + Y,
+              isSubsumedBy(SubsumptionEngine.STRUCTURAL, X.toELConceptDescription(), Y.toELConceptDescription()),
+              simulation.holds(X, Y));
+    }
+  }
+
+  private static final List<ImmutableELConceptDescription> subDescriptions(final ImmutableELConceptDescription C) {
+    final List<ImmutableELConceptDescription> subDescriptions = new ArrayList<>();
+    subDescriptions.add(C);
+    for (ImmutableELConceptDescription filler : C.getExistentialRestrictions().values())
+      subDescriptions.addAll(subDescriptions(filler));
+    return subDescriptions;
+  }
+
+}
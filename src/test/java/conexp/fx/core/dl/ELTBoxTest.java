@@ -0,0 +1,98 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks the role-depth bounded canonical model, which relies on the classifier, against the full canonical model,
+ * which is built by saturating the description graph and thus does not use the classifier.
+ */
+public class ELTBoxTest {
+
+  private static final int MAX_ROLE_DEPTH = 5;
+
+  private static final ELConceptDescription
+      fullMostSpecificConsequence(final ELTBox tBox, final ELConceptDescription C, final int roleDepth) {
+    return tBox.getCanonicalModel(C).getMostSpecificConceptDescription(Collections.singleton(C), roleDepth);
+  }
+
+  private static final List<ELConceptDescription>
+      queries(final RandomELConceptDescriptions random, final ELTBox tBox, final int number) {
+    final List<ELConceptDescription> queries = new ArrayList<>();
+    for (ELConceptInclusion conceptInclusion : tBox.getConceptInclusions())
+      queries.add(conceptInclusion.getSubsumee());
+    for (int i = 0; i < number; i++)
+      queries.add(random.next(random.random().nextInt(3)));
+    return queries;
+  }
+
+  @Test
+  public void testBoundedMostSpecificConsequenceEqualsFull() {
+    for (long seed = 0; seed < 20; seed++) {
+      final RandomELConceptDescriptions random = new RandomELConceptDescriptions(seed, 4, 2);
+      final ELTBox tBox = random.nextTBox(2 + random.random().nextInt(6), 12);
+      for (ELConceptDescription C : queries(random, tBox, 4))
+        for (int roleDepth = 0; roleDepth <= MAX_ROLE_DEPTH; roleDepth++) {
+          final ELConceptDescription bounded = tBox.getMostSpecificConsequence(C, roleDepth);
+          final ELConceptDescription full = fullMostSpecificConsequence(tBox, C, roleDepth);
+          assertTrue(
+              "T=" + tBox + ", C=" + C + ", d=" + roleDepth + ": " + bounded + " is not equivalent to " + full,
+              bounded.isEquivalentTo(full));
+        }
+    }
+  }
+
+  @Test
+  public void testClassifierAgreesWithFullCanonicalModel() {
+    int subsumptions = 0;
+    int tests = 0;
+    for (long seed = 0; seed < 50; seed++) {
+      final RandomELConceptDescriptions random = new RandomELConceptDescriptions(seed, 4, 2);
+      final ELTBox tBox = random.nextTBox(1 + random.random().nextInt(6), 12);
+      final List<ELConceptDescription> queries = queries(random, tBox, 6);
+      for (ELConceptInclusion conceptInclusion : tBox.getConceptInclusions())
+        queries.add(conceptInclusion.getSubsumer());
+      for (ELConceptDescription C : queries) {
+        final ELConceptDescription msc = fullMostSpecificConsequence(tBox, C, 2);
+        for (ELConceptDescription D : queries)
+          if (D.roleDepth() <= 2) {
+            final boolean isSubsumedBy = ELReasoner.isSubsumedBy(C, D, tBox);
+            assertEquals("T=" + tBox + ", " + C + " <= " + D, msc.isSubsumedBy(D), isSubsumedBy);
+            tests++;
+            if (isSubsumedBy)
+              subsumptions++;
+          }
+      }
+    }
+    assertTrue(subsumptions > tests / 10 && subsumptions < tests * 9 / 10);
+  }
+
+}
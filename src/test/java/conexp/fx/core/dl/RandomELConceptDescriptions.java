@@ -0,0 +1,104 @@
+package conexp.fx.core.dl;
+
+/*
+ * #%L
+ * Concept Explorer FX
+ * %%
+ * Copyright (C) 2010 - 2022 Francesco Kriegel
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.semanticweb.owlapi.model.IRI;
+
+/**
+ * Generates random concept descriptions and TBoxes over a fixed signature for the differential tests and benchmarks.
+ * The generated descriptions are small and sparse, such that subsumptions between them are not too rare.
+ */
+final class RandomELConceptDescriptions {
+
+  private final Random    random;
+  private final List<IRI> conceptNames = new ArrayList<>();
+  private final List<IRI> roleNames    = new ArrayList<>();
+
+  RandomELConceptDescriptions(final long seed, final int conceptNames, final int roleNames) {
+    super();
+    this.random = new Random(seed);
+    for (int i = 0; i < conceptNames; i++)
+      this.conceptNames.add(IRI.create("http://example.org/A" + i));
+    for (int i = 0; i < roleNames; i++)
+      this.roleNames.add(IRI.create("http://example.org/r" + i));
+  }
+
+  final Random random() {
+    return random;
+  }
+
+  /**
+   * @return a random concept description whose role depth does not exceed the given one
+   */
+  final ELConceptDescription next(final int roleDepth) {
+    final ELConceptDescription C = new ELConceptDescription();
+    final int n = random.nextInt(3) + (roleDepth == 0 ? 1 : 0);
+    for (int i = 0; i < n; i++)
+      C.getConceptNames().add(conceptNames.get(random.nextInt(conceptNames.size())));
+    if (roleDepth > 0) {
+      final int m = random.nextInt(3);
+      for (int i = 0; i < m; i++)
+        C
+            .getExistentialRestrictions()
+            .put(roleNames.get(random.nextInt(roleNames.size())), next(random.nextInt(roleDepth)));
+    }
+    return C;
+  }
+
+  /**
+   * @return a random subsumer of the given concept description, which is obtained by dropping conjuncts
+   */
+  final ELConceptDescription generalize(final ELConceptDescription C) {
+    final ELConceptDescription D = new ELConceptDescription();
+    for (IRI A : C.getConceptNames())
+      if (random.nextInt(3) > 0)
+        D.getConceptNames().add(A);
+    for (Entry<IRI, ELConceptDescription> rE : C.getExistentialRestrictions().entries())
+      if (random.nextInt(3) > 0)
+        D.getExistentialRestrictions().put(rE.getKey(), generalize(rE.getValue()));
+    return D;
+  }
+
+  /**
+   * @return a random TBox with the given number of concept inclusions, of which about half have a complex
+   *         premise, and of which about one in bottomFrequency has bottom as its conclusion (none if it is 0)
+   */
+  final ELTBox nextTBox(final int size, final int bottomFrequency) {
+    final ELTBox tBox = new ELTBox();
+    for (int i = 0; i < size; i++) {
+      final ELConceptDescription premise = random.nextInt(2) == 0 ? next(1 + random.nextInt(2))
+          : ELConceptDescription.conceptName(conceptNames.get(random.nextInt(conceptNames.size())));
+      final ELConceptDescription conclusion =
+          bottomFrequency > 0 && random.nextInt(bottomFrequency) == 0 ? ELConceptDescription.bot()
+              : next(random.nextInt(3));
+      tBox.getConceptInclusions().add(new ELConceptInclusion(premise, conclusion));
+    }
+    return tBox;
+  }
+
+}